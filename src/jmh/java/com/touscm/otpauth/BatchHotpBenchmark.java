@@ -0,0 +1,78 @@
+package com.touscm.otpauth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量计算同一计数器下多个HmacSHA1密钥的截断值: 批量入口(Java 17及以上为Vector API实现)、逐个纯Java计算与javax.crypto.Mac比较
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchHotpBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int keys;
+
+    private byte[][] keyData;
+    private HmacKey[] hmacKeys;
+    private int[] binCodes;
+    private Mac mac;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(keys);
+        keyData = new byte[keys][HashAlgorithm.SHA1.getSecretSize()];
+        hmacKeys = new HmacKey[keys];
+        for (int i = 0; i < keys; i++) {
+            random.nextBytes(keyData[i]);
+            hmacKeys[i] = HmacKey.of(HashAlgorithm.SHA1, keyData[i], true);
+        }
+        binCodes = new int[keys];
+        mac = Mac.getInstance(HashAlgorithm.SHA1.getMacName());
+        counter = System.currentTimeMillis() / OtpAuthUtils.TIME_STEP_SIZE;
+    }
+
+    @Benchmark
+    public int[] batch() {
+        BatchHotp.truncate(hmacKeys, counter, binCodes);
+        return binCodes;
+    }
+
+    @Benchmark
+    public int[] scalar() {
+        for (int i = 0; i < keys; i++) {
+            binCodes[i] = hmacKeys[i].truncate(counter);
+        }
+        return binCodes;
+    }
+
+    @Benchmark
+    public int[] mac() throws Exception {
+        byte[] data = ByteBuffer.allocate(8).putLong(counter).array();
+        for (int i = 0; i < keys; i++) {
+            mac.init(new SecretKeySpec(keyData[i], HashAlgorithm.SHA1.getMacName()));
+            binCodes[i] = HmacKey.truncate(mac.doFinal(data));
+        }
+        return binCodes;
+    }
+}
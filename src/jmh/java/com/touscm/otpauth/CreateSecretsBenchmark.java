@@ -0,0 +1,60 @@
+package com.touscm.otpauth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量创建密钥与逐个创建比较, 使用默认随机数来源(共享的SHA1PRNG); 结果为每个密钥的耗时
+ * <p>
+ * 多线程比较: -t 4, 或运行threads4系列方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateSecretsBenchmark {
+    private static final int COUNT = 1000;
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public String[] createSecretLoop() {
+        String[] secrets = new String[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            secrets[i] = OtpAuthUtils.createSecret();
+        }
+        return secrets;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public String[] createSecrets() {
+        return OtpAuthUtils.createSecrets(COUNT);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(COUNT)
+    public String[] threads4CreateSecretLoop() {
+        return createSecretLoop();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(COUNT)
+    public String[] threads4CreateSecrets() {
+        return createSecrets();
+    }
+}
@@ -0,0 +1,71 @@
+package com.touscm.otpauth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同随机数来源下并发创建密钥的吞吐量
+ * <p>
+ * 线程数量: -t 1, -t 8, -t 32 等, 覆盖各方法的默认值; 共享来源的锁竞争只在多个CPU上才能体现
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntropySourceBenchmark {
+    private static final int STRIPES = 8;
+
+    @Param({"shared", "threadLocal", "striped", "drbg"})
+    public String source;
+
+    @Setup
+    public void setup() {
+        OtpAuthUtils.setEntropySource(entropySource(source));
+    }
+
+    @Benchmark
+    public String createSecret() {
+        return OtpAuthUtils.createSecret();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String threads4CreateSecret() {
+        return OtpAuthUtils.createSecret();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String threads16CreateSecret() {
+        return OtpAuthUtils.createSecret();
+    }
+
+    private static EntropySource entropySource(String name) {
+        switch (name) {
+            case "shared":
+                return EntropySources.shared(EntropySources.getInstance("SHA1PRNG"));
+            case "threadLocal":
+                return EntropySources.threadLocal(() -> EntropySources.getInstance("SHA1PRNG"));
+            case "striped":
+                return EntropySources.striped(STRIPES, () -> EntropySources.getInstance("SHA1PRNG"));
+            case "drbg":
+                return EntropySources.drbg();
+            default:
+                throw new IllegalArgumentException("unknown entropy source: " + name);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.touscm.otpauth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个HmacSHA1密钥计算一次HOTP截断值: 纯Java实现、预处理的JCA实现与每次创建Mac比较
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HmacKeyBenchmark {
+    private byte[] keyData;
+    private HmacKey pureJavaKey;
+    private HmacKey jcaKey;
+    private long counter;
+
+    @Setup
+    public void setUp() throws Exception {
+        keyData = new byte[HashAlgorithm.SHA1.getSecretSize()];
+        new Random(4226).nextBytes(keyData);
+        pureJavaKey = HmacKey.of(HashAlgorithm.SHA1, keyData, true);
+        jcaKey = HmacKey.of(HashAlgorithm.SHA1, keyData, false);
+        counter = System.currentTimeMillis() / OtpAuthUtils.TIME_STEP_SIZE;
+    }
+
+    @Benchmark
+    public int pureJava() {
+        return pureJavaKey.truncate(counter++);
+    }
+
+    @Benchmark
+    public int jca() {
+        return jcaKey.truncate(counter++);
+    }
+
+    @Benchmark
+    public int newMac() throws Exception {
+        Mac mac = Mac.getInstance(HashAlgorithm.SHA1.getMacName());
+        mac.init(new SecretKeySpec(keyData, HashAlgorithm.SHA1.getMacName()));
+        return HmacKey.truncate(mac.doFinal(ByteBuffer.allocate(8).putLong(counter++).array()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.touscm.otpauth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 新JVM中首次调用的耗时: 每次测量使用独立的JVM, 包含OtpAuthUtils的类加载与静态初始化
+ * <p>
+ * 只验证的路径不应初始化随机数生成器, 首次创建密钥作为对比; 基准类不引用OtpAuthUtils的字段, 保证调用前未加载
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+    private static final String SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    @Benchmark
+    public Object firstValidateCode() {
+        return OtpAuthUtils.validateCode(SECRET, 287082L);
+    }
+
+    @Benchmark
+    public Object firstCreateSecret() {
+        return OtpAuthUtils.createSecret();
+    }
+}
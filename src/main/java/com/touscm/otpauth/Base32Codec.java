@@ -0,0 +1,212 @@
+package com.touscm.otpauth;
+
+import javax.validation.constraints.NotNull;
+import java.nio.ByteBuffer;
+
+/**
+ * Base32编解码, 参照<a href="https://www.rfc-editor.org/rfc/rfc4648#section-6">RFC4648, 6</a>
+ * <p>
+ * 解码兼容认证器应用常见的格式: 忽略大小写, 跳过空白与连字符, 遇到填充字符'='结束; 解码结果写入调用方提供的缓冲区, 不分配内存
+ */
+public final class Base32Codec {
+    private static final byte INVALID = -1;
+    private static final byte SKIP = -2;
+    private static final byte PAD = -3;
+
+    private static final char[] ENCODE_TABLE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".toCharArray();
+    private static final byte[] DECODE_TABLE = new byte[128];
+    private static final char PAD_CHAR = '=';
+
+    static {
+        for (int i = 0; i < DECODE_TABLE.length; i++) {
+            DECODE_TABLE[i] = INVALID;
+        }
+        for (int i = 0; i < 26; i++) {
+            DECODE_TABLE['A' + i] = (byte) i;
+            DECODE_TABLE['a' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            DECODE_TABLE['2' + i] = (byte) (26 + i);
+        }
+        DECODE_TABLE[' '] = SKIP;
+        DECODE_TABLE['\t'] = SKIP;
+        DECODE_TABLE['\r'] = SKIP;
+        DECODE_TABLE['\n'] = SKIP;
+        DECODE_TABLE['-'] = SKIP;
+        DECODE_TABLE[PAD_CHAR] = PAD;
+    }
+
+    private Base32Codec() {
+    }
+
+    /**
+     * 取得编码后的字符数(含填充)
+     *
+     * @param length 字节数
+     * @return 字符数
+     */
+    public static int encodedLength(int length) {
+        return (length + 4) / 5 * 8;
+    }
+
+    /**
+     * 编码到字符数组, 不足8字符的分组以'='填充
+     *
+     * @param src        源数组
+     * @param offset     源起始位置
+     * @param length     字节数
+     * @param dest       目标数组, 剩余空间不小于{@link #encodedLength(int)}
+     * @param destOffset 目标起始位置
+     * @return 写入字符数
+     */
+    public static int encode(@NotNull byte[] src, int offset, int length, @NotNull char[] dest, int destOffset) {
+        int position = destOffset, end = offset + length;
+        int i = offset;
+
+        // 每5字节编码为8字符
+        for (; i + 5 <= end; i += 5) {
+            long block = (src[i] & 0xffL) << 32 | (src[i + 1] & 0xffL) << 24 | (src[i + 2] & 0xffL) << 16 | (src[i + 3] & 0xffL) << 8 | (src[i + 4] & 0xffL);
+            for (int shift = 35; shift >= 0; shift -= 5) {
+                dest[position++] = ENCODE_TABLE[(int) (block >>> shift) & 0x1f];
+            }
+        }
+
+        int remaining = end - i;
+        if (remaining > 0) {
+            long block = 0;
+            for (int j = 0; j < remaining; j++) {
+                block |= (src[i + j] & 0xffL) << (32 - 8 * j);
+            }
+            int chars = (remaining * 8 + 4) / 5;
+            for (int j = 0, shift = 35; j < 8; j++, shift -= 5) {
+                dest[position++] = j < chars ? ENCODE_TABLE[(int) (block >>> shift) & 0x1f] : PAD_CHAR;
+            }
+        }
+        return position - destOffset;
+    }
+
+    /**
+     * 编码为字符串
+     *
+     * @param src 源数组
+     * @return Base32文本
+     */
+    public static String encodeToString(@NotNull byte[] src) {
+        char[] chars = new char[encodedLength(src.length)];
+        return new String(chars, 0, encode(src, 0, src.length, chars, 0));
+    }
+
+    /**
+     * 取得解码后的最大字节数
+     *
+     * @param src Base32文本
+     * @return 最大字节数
+     */
+    public static int decodedLength(@NotNull CharSequence src) {
+        return (int) (src.length() * 5L / 8);
+    }
+
+    /**
+     * 解码到字节数组
+     *
+     * @param src    Base32文本
+     * @param dest   目标数组
+     * @param offset 起始位置
+     * @return 解码字节数, 含非法字符或目标空间不足时返回-1
+     */
+    public static int decode(@NotNull CharSequence src, @NotNull byte[] dest, int offset) {
+        return decode(src, dest, offset, dest.length);
+    }
+
+    /**
+     * 解码到字节缓冲区, 成功时缓冲区位置后移解码字节数
+     *
+     * @param src  Base32文本
+     * @param dest 目标缓冲区
+     * @return 解码字节数, 含非法字符或目标空间不足时返回-1
+     */
+    public static int decode(@NotNull CharSequence src, @NotNull ByteBuffer dest) {
+        if (dest.hasArray()) {
+            int position = dest.position();
+            int count = decode(src, dest.array(), dest.arrayOffset() + position, dest.arrayOffset() + dest.limit());
+            if (count >= 0) {
+                dest.position(position + count);
+            }
+            return count;
+        }
+
+        int buffer = 0, bits = 0, count = 0, start = dest.position();
+        for (int i = 0, length = src.length(); i < length; i++) {
+            char ch = src.charAt(i);
+            int value = ch < DECODE_TABLE.length ? DECODE_TABLE[ch] : INVALID;
+            if (value == SKIP) {
+                continue;
+            }
+            if (value == PAD) {
+                break;
+            }
+            if (value == INVALID) {
+                dest.position(start);
+                return -1;
+            }
+
+            buffer = buffer << 5 | value;
+            if ((bits += 5) >= 8) {
+                if (!dest.hasRemaining()) {
+                    dest.position(start);
+                    return -1;
+                }
+                dest.put((byte) (buffer >>> (bits -= 8)));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 解码为新数组
+     *
+     * @param src Base32文本
+     * @return 解码结果, 含非法字符时返回null
+     */
+    public static byte[] decode(@NotNull CharSequence src) {
+        byte[] buffer = new byte[decodedLength(src)];
+        int count = decode(src, buffer, 0);
+        if (count < 0) {
+            return null;
+        }
+        if (count == buffer.length) {
+            return buffer;
+        }
+
+        byte[] result = new byte[count];
+        System.arraycopy(buffer, 0, result, 0, count);
+        return result;
+    }
+
+    private static int decode(CharSequence src, byte[] dest, int offset, int limit) {
+        int buffer = 0, bits = 0, position = offset;
+        for (int i = 0, length = src.length(); i < length; i++) {
+            char ch = src.charAt(i);
+            int value = ch < DECODE_TABLE.length ? DECODE_TABLE[ch] : INVALID;
+            if (value == SKIP) {
+                continue;
+            }
+            if (value == PAD) {
+                break;
+            }
+            if (value == INVALID) {
+                return -1;
+            }
+
+            buffer = buffer << 5 | value;
+            if ((bits += 5) >= 8) {
+                if (position >= limit) {
+                    return -1;
+                }
+                dest[position++] = (byte) (buffer >>> (bits -= 8));
+            }
+        }
+        return position - offset;
+    }
+}
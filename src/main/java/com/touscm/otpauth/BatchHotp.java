@@ -0,0 +1,22 @@
+package com.touscm.otpauth;
+
+/**
+ * 批量计算多个密钥在同一计数器下的HOTP截断值
+ * <p>
+ * Java 8实现逐个密钥计算; Java 17及以上版本由多版本JAR中的同名类替换, 在可用时使用Vector API并行计算SHA-1
+ */
+final class BatchHotp {
+    private BatchHotp() {
+    }
+
+    /**
+     * @param keys     预处理密钥
+     * @param counter  计数器
+     * @param binCodes 截断值输出, 失败时为-1
+     */
+    static void truncate(HmacKey[] keys, long counter, int[] binCodes) {
+        for (int i = 0; i < keys.length; i++) {
+            binCodes[i] = keys[i].truncate(counter);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.touscm.otpauth;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 定长缓存, 按CLOCK(二次机会)策略淘汰, 读操作无锁
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+final class BoundedCache<K, V> {
+    private final int capacity;
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final Node<K, V>[] ring;
+    private int hand;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity 最大缓存数量
+     */
+    @SuppressWarnings("unchecked")
+    BoundedCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("cache capacity must be positive");
+
+        this.capacity = capacity;
+        this.map = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+        this.ring = (Node<K, V>[]) new Node[capacity];
+    }
+
+    /**
+     * 取得缓存值
+     *
+     * @param key 键
+     * @return 缓存值, 未命中时返回null
+     */
+    V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+
+        node.referenced = true;
+        hits.increment();
+        return node.value;
+    }
+
+    /**
+     * 写入缓存, 已存在时保留原值
+     *
+     * @param key   键
+     * @param value 值
+     * @return 缓存中的值
+     */
+    synchronized V put(K key, V value) {
+        Node<K, V> existing = map.get(key);
+        if (existing != null) {
+            return existing.value;
+        }
+
+        // 指针扫过的已访问节点获得二次机会, 第一个未访问节点被淘汰
+        Node<K, V> victim;
+        while ((victim = ring[hand]) != null && victim.referenced) {
+            victim.referenced = false;
+            hand = (hand + 1) % capacity;
+        }
+        if (victim != null) {
+            map.remove(victim.key);
+        }
+
+        Node<K, V> node = new Node<>(key, value);
+        ring[hand] = node;
+        hand = (hand + 1) % capacity;
+        map.put(key, node);
+        return value;
+    }
+
+    synchronized void clear() {
+        map.clear();
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = null;
+        }
+        hand = 0;
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        volatile boolean referenced;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
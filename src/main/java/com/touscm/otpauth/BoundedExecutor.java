@@ -0,0 +1,91 @@
+package com.touscm.otpauth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 限制未完成任务数量的执行器, 超出时立即拒绝而不是排队等待
+ */
+final class BoundedExecutor implements Executor {
+    private static final Logger logger = LoggerFactory.getLogger(BoundedExecutor.class);
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final int maxPending;
+
+    BoundedExecutor(Executor delegate, int maxPending) {
+        if (delegate == null) throw new IllegalArgumentException("executor can't be null");
+        if (maxPending <= 0) throw new IllegalArgumentException("max pending must be positive");
+
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxPending);
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * 创建默认执行器: Java 21及以上版本每个任务使用一个虚拟线程, 否则使用与处理器数量相同的守护线程
+     *
+     * @param maxPending 最多未完成的任务数量
+     * @return 执行器
+     */
+    static BoundedExecutor createDefault(int maxPending) {
+        return new BoundedExecutor(virtualThreadExecutor(), maxPending);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("too many pending tasks, limit " + maxPending);
+        }
+
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 取得未完成的任务数量
+     *
+     * @return 任务数量
+     */
+    int getPendingCount() {
+        return maxPending - permits.availablePermits();
+    }
+
+    private static Executor virtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException e) {
+            logger.debug("virtual threads not supported, use platform threads");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("virtual thread executor unavailable, use platform threads", e);
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "otpauth-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory);
+    }
+}
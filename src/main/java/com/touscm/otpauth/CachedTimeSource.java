@@ -0,0 +1,66 @@
+package com.touscm.otpauth;
+
+import javax.validation.constraints.NotNull;
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 后台线程定时更新的粗粒度时间来源
+ * <p>
+ * 读取的时间最多落后一个更新间隔; 验证码以时间窗口为单位, 间隔远小于时间步长时对验证结果没有影响
+ */
+public final class CachedTimeSource implements TimeSource, Closeable {
+    public static final long DEFAULT_TICK_MILLIS = 10;
+
+    private final TimeSource source;
+    private final long tickNanos;
+    private final Thread ticker;
+    private volatile long currentTimeMillis;
+    private volatile boolean closed;
+
+    private CachedTimeSource(TimeSource source, long tickMillis) {
+        this.source = source;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.currentTimeMillis = source.currentTimeMillis();
+        this.ticker = new Thread(this::tick, "otpauth-time-ticker");
+        this.ticker.setDaemon(true);
+    }
+
+    /**
+     * 创建并启动时间来源
+     *
+     * @param source     底层时间来源
+     * @param tickMillis 更新间隔(毫秒)
+     * @return 时间来源
+     */
+    public static CachedTimeSource start(@NotNull TimeSource source, long tickMillis) {
+        if (source == null) throw new IllegalArgumentException("time source can't be null");
+        if (tickMillis <= 0) throw new IllegalArgumentException("tick must be positive");
+
+        CachedTimeSource timeSource = new CachedTimeSource(source, tickMillis);
+        timeSource.ticker.start();
+        return timeSource;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return closed ? source.currentTimeMillis() : currentTimeMillis;
+    }
+
+    /**
+     * 停止后台线程, 之后直接读取底层时间来源
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(ticker);
+    }
+
+    private void tick() {
+        while (!closed) {
+            currentTimeMillis = source.currentTimeMillis();
+            LockSupport.parkNanos(this, tickNanos);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.touscm.otpauth;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 记录最近验证的密钥在某一时间窗口的验证码, 同一窗口内重复验证时不再计算HMAC
+ * <p>
+ * 直接映射的无锁表, 每个槽位占两个long: 值为(时间标识 &lt;&lt; 32 | 验证码), 标签为密钥哈希与值的异或;
+ * 读取时标签与值不一致(哈希冲突或并发写入)即视为未命中. 时间标识不同的记录自然失效, 无需清理
+ */
+final class CodeMemo {
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param capacity 槽位数量, 向上取整为2的幂
+     */
+    CodeMemo(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicLongArray(size * 2);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 计算记录键, 包含算法与位数
+     *
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @param digits    验证码位数
+     * @return 记录键
+     */
+    static long key(String secret, HashAlgorithm algorithm, int digits) {
+        long h = DriftStore.hash(secret) ^ (long) algorithm.ordinal() << 8 ^ digits;
+        return h * 0xc4ceb9fe1a85ec53L;
+    }
+
+    /**
+     * 取得记录的验证码
+     *
+     * @param key        记录键
+     * @param timeWindow 时间标识
+     * @return 验证码, 无记录或已过期时为-1
+     */
+    int get(long key, long timeWindow) {
+        int index = index(key);
+        long value = slots.get(index + 1);
+        if ((slots.get(index) ^ value) != key || value >> 32 != timeWindow) {
+            missCount.increment();
+            return -1;
+        }
+        hitCount.increment();
+        return (int) value;
+    }
+
+    void put(long key, long timeWindow, int code) {
+        int index = index(key);
+        long value = timeWindow << 32 | code & 0xFFFFFFFFL;
+        slots.lazySet(index + 1, value);
+        slots.lazySet(index, key ^ value);
+    }
+
+    int capacity() {
+        return slots.length() / 2;
+    }
+
+    long getHitCount() {
+        return hitCount.sum();
+    }
+
+    long getMissCount() {
+        return missCount.sum();
+    }
+
+    private int index(long key) {
+        return ((int) (key >>> 32) & mask) << 1;
+    }
+}
@@ -0,0 +1,317 @@
+package com.touscm.otpauth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 预先计算活跃密钥下一时间窗口验证码的服务
+ * <p>
+ * 后台线程在每个时间窗口开始前的一段时间(提前量减去随机抖动)批量计算已注册密钥下一窗口的验证码, 验证时只需比较整数;
+ * 每个密钥保存当前与下一窗口两个验证码, 注册数量有上限. 只支持默认时间步长的密钥; 应与使用它的验证器使用相同的时间来源
+ */
+public final class CodePrecomputer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(CodePrecomputer.class);
+
+    public static final int DEFAULT_MAX_SECRETS = 100000;
+    public static final long DEFAULT_LEAD_MILLIS = 2000;
+    public static final long DEFAULT_MAX_JITTER_MILLIS = 1000;
+
+    // 单次等待的上限, 模拟时间跳跃后不会按原先的时间差长时间等待
+    private static final long MAX_PARK_MILLIS = 1000;
+
+    private final int maxSecrets;
+    private final long leadMillis;
+    private final long maxJitterMillis;
+    private final TimeSource timeSource;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private volatile long lastRefreshNanos = -1;
+
+    private final Thread refresher;
+    private volatile boolean closed;
+
+    private CodePrecomputer(int maxSecrets, long leadMillis, long maxJitterMillis, TimeSource timeSource) {
+        this.maxSecrets = maxSecrets;
+        this.leadMillis = leadMillis;
+        this.maxJitterMillis = maxJitterMillis;
+        this.timeSource = timeSource;
+        this.refresher = new Thread(this::refresh, "otpauth-code-precomputer");
+        this.refresher.setDaemon(true);
+    }
+
+    /**
+     * 创建并启动预计算服务, 使用系统时间与默认的数量上限、提前量与抖动
+     *
+     * @return 预计算服务
+     */
+    public static CodePrecomputer start() {
+        return start(DEFAULT_MAX_SECRETS, DEFAULT_LEAD_MILLIS, DEFAULT_MAX_JITTER_MILLIS, TimeSources.system());
+    }
+
+    /**
+     * 创建并启动预计算服务, 使用默认的数量上限、提前量与抖动
+     *
+     * @param timeSource 时间来源, 与验证器一致
+     * @return 预计算服务
+     */
+    public static CodePrecomputer start(@NotNull TimeSource timeSource) {
+        return start(DEFAULT_MAX_SECRETS, DEFAULT_LEAD_MILLIS, DEFAULT_MAX_JITTER_MILLIS, timeSource);
+    }
+
+    /**
+     * 创建并启动预计算服务, 使用系统时间
+     *
+     * @param maxSecrets      注册密钥数量上限
+     * @param leadMillis      在时间窗口开始前多少毫秒计算
+     * @param maxJitterMillis 在提前量基础上再随机提前的最大毫秒数, 避免多个实例同时计算
+     * @return 预计算服务
+     */
+    public static CodePrecomputer start(int maxSecrets, long leadMillis, long maxJitterMillis) {
+        return start(maxSecrets, leadMillis, maxJitterMillis, TimeSources.system());
+    }
+
+    /**
+     * 创建并启动预计算服务
+     *
+     * @param maxSecrets      注册密钥数量上限
+     * @param leadMillis      在时间窗口开始前多少毫秒计算
+     * @param maxJitterMillis 在提前量基础上再随机提前的最大毫秒数, 避免多个实例同时计算
+     * @param timeSource      时间来源, 与验证器一致
+     * @return 预计算服务
+     */
+    public static CodePrecomputer start(int maxSecrets, long leadMillis, long maxJitterMillis, @NotNull TimeSource timeSource) {
+        if (timeSource == null) throw new IllegalArgumentException("time source can't be null");
+        if (maxSecrets <= 0) throw new IllegalArgumentException("max secrets must be positive");
+        if (leadMillis < 0 || maxJitterMillis < 0 || OtpAuthUtils.TIME_STEP_SIZE <= leadMillis + maxJitterMillis) {
+            throw new IllegalArgumentException("lead and jitter must be non-negative and less than the time step in total");
+        }
+
+        CodePrecomputer precomputer = new CodePrecomputer(maxSecrets, leadMillis, maxJitterMillis, timeSource);
+        precomputer.refresher.start();
+        return precomputer;
+    }
+
+    /**
+     * 注册密钥, 立即计算当前与下一窗口的验证码
+     *
+     * @param secret 已解码的密钥
+     * @return 注册结果, 已达数量上限时为false
+     */
+    public boolean register(@NotNull OtpSecret secret) {
+        if (secret == null) throw new IllegalArgumentException("secret can't be null");
+        if (secret.getPeriod() != OtpSecret.DEFAULT_PERIOD) throw new IllegalArgumentException("only the default period is supported");
+
+        Entry entry = new Entry(secret);
+        long timeWindow = timeSource.currentTimeMillis() / OtpAuthUtils.TIME_STEP_SIZE;
+        entry.current = pack(timeWindow, calculate(secret, timeWindow));
+        entry.next = pack(timeWindow + 1, calculate(secret, timeWindow + 1));
+
+        // 只有新增记录计入数量, 与取消注册并发时重试
+        String key = secret.getSecret();
+        for (; ; ) {
+            if (entries.replace(key, entry) != null) {
+                return true;
+            }
+            if (maxSecrets < size.incrementAndGet()) {
+                size.decrementAndGet();
+                return false;
+            }
+            if (entries.putIfAbsent(key, entry) == null) {
+                return true;
+            }
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * 取消注册密钥
+     *
+     * @param secret 密钥
+     */
+    public void unregister(@NotBlank String secret) {
+        if (secret != null && entries.remove(secret) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * 取得已注册的密钥数量
+     *
+     * @return 数量
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    public int getMaxSecrets() {
+        return maxSecrets;
+    }
+
+    public TimeSource getTimeSource() {
+        return timeSource;
+    }
+
+    /**
+     * 取得验证时命中预计算验证码的次数
+     *
+     * @return 次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 取得验证时未命中预计算验证码的次数
+     *
+     * @return 次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 取得最近一次批量计算的耗时, 尚未计算时为-1
+     *
+     * @return 耗时(纳秒)
+     */
+    public long getLastRefreshNanos() {
+        return lastRefreshNanos;
+    }
+
+    /**
+     * 停止后台线程, 已计算的验证码在过期前仍可使用
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(refresher);
+    }
+
+    /**
+     * 查找预计算的验证码
+     *
+     * @param secret     密钥
+     * @param algorithm  HMAC算法
+     * @param digits     验证码位数
+     * @param timeWindow 时间标识
+     * @return 验证码, 未注册、参数不一致或窗口已过期时为-1
+     */
+    int lookup(String secret, HashAlgorithm algorithm, int digits, long timeWindow) {
+        Entry entry = entries.get(secret);
+        if (entry == null || entry.secret.getAlgorithm() != algorithm || entry.secret.getDigits() != digits) {
+            missCount.increment();
+            return -1;
+        }
+
+        long packed = entry.current;
+        if (window(packed) != timeWindow) {
+            packed = entry.next;
+            if (window(packed) != timeWindow) {
+                missCount.increment();
+                return -1;
+            }
+        }
+        hitCount.increment();
+        return (int) packed;
+    }
+
+    private void refresh() {
+        while (!closed) {
+            long now = timeSource.currentTimeMillis();
+            long nextWindow = now / OtpAuthUtils.TIME_STEP_SIZE + 1;
+            long jitter = maxJitterMillis == 0 ? 0 : ThreadLocalRandom.current().nextLong(maxJitterMillis + 1);
+            long delay = nextWindow * OtpAuthUtils.TIME_STEP_SIZE - leadMillis - jitter - now;
+            if (delay > 0) {
+                park(delay);
+                continue;
+            }
+
+            try {
+                computeWindow(nextWindow);
+            } catch (RuntimeException e) {
+                logger.error("precompute codes with exception", e);
+            }
+
+            // 等待进入下一窗口后再安排下一次计算
+            long remaining;
+            while (!closed && (remaining = nextWindow * OtpAuthUtils.TIME_STEP_SIZE - timeSource.currentTimeMillis()) > 0) {
+                park(remaining);
+            }
+        }
+    }
+
+    private void park(long millis) {
+        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(Math.min(millis, MAX_PARK_MILLIS)));
+    }
+
+    /**
+     * 批量计算已注册密钥在给定窗口的验证码, 并将其设为下一窗口
+     *
+     * @param timeWindow 时间标识
+     */
+    void computeWindow(long timeWindow) {
+        long begin = System.nanoTime();
+
+        List<Entry> snapshot = new ArrayList<>(entries.values());
+        HmacKey[] keys = new HmacKey[snapshot.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = snapshot.get(i).secret.getHmacKey();
+        }
+        int[] binCodes = new int[keys.length];
+        BatchHotp.truncate(keys, timeWindow, binCodes);
+
+        for (int i = 0; i < keys.length; i++) {
+            Entry entry = snapshot.get(i);
+            int code = binCodes[i] < 0 ? -1 : OtpCode.truncate(binCodes[i], entry.secret.getDigits());
+            if (window(entry.next) != timeWindow) {
+                entry.current = entry.next;
+                entry.next = pack(timeWindow, code);
+            }
+        }
+
+        lastRefreshNanos = System.nanoTime() - begin;
+    }
+
+    private static int calculate(OtpSecret secret, long timeWindow) {
+        int binCode = secret.getHmacKey().truncate(timeWindow);
+        return binCode < 0 ? -1 : OtpCode.truncate(binCode, secret.getDigits());
+    }
+
+    private static long pack(long timeWindow, int code) {
+        return timeWindow << 32 | code & 0xFFFFFFFFL;
+    }
+
+    private static long window(long packed) {
+        return packed >> 32;
+    }
+
+    /**
+     * 已注册密钥的当前与下一窗口验证码, 高32位为时间标识, 低32位为验证码
+     */
+    private static final class Entry {
+        private final OtpSecret secret;
+        private volatile long current;
+        private volatile long next;
+
+        Entry(OtpSecret secret) {
+            this.secret = secret;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.touscm.otpauth;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * 批量创建密钥使用的AES-CTR密钥流, AES-256密钥与初始计数器取自随机数来源
+ * <p>
+ * 构造同NIST SP 800-90A的CTR_DRBG: 每输出64KiB(单次请求的输出上限)重新从来源取得密钥与计数器;
+ * 批量创建时每64KiB只访问一次来源, 其余字节由AES计算, 在支持AES指令的CPU上远快于逐个密钥调用SecureRandom. 实例只在单个线程中使用
+ */
+final class CtrKeystream implements EntropySource {
+    static final String CIPHER_ALGORITHM = "AES/CTR/NoPadding";
+    static final int MAX_BYTES_PER_KEY = 65536;
+
+    private static final int KEY_SIZE = 32;
+    private static final int COUNTER_SIZE = 16;
+
+    private final EntropySource seedSource;
+    private final Cipher cipher;
+    private final byte[] seed = new byte[KEY_SIZE + COUNTER_SIZE];
+    private int remaining;
+
+    /**
+     * @param seedSource 密钥与计数器的随机数来源
+     * @throws GeneralSecurityException AES-CTR不可用
+     */
+    CtrKeystream(EntropySource seedSource) throws GeneralSecurityException {
+        this.seedSource = seedSource;
+        this.cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+        rekey();
+    }
+
+    @Override
+    public void nextBytes(byte[] bytes) {
+        try {
+            for (int offset = 0; offset < bytes.length; ) {
+                if (remaining == 0) {
+                    rekey();
+                }
+                int length = Math.min(bytes.length - offset, remaining);
+                // 加密全零输入即得到密钥流
+                Arrays.fill(bytes, offset, offset + length, (byte) 0);
+                cipher.update(bytes, offset, length, bytes, offset);
+                offset += length;
+                remaining -= length;
+            }
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("keystream output buffer too short", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("keystream rekey failed", e);
+        }
+    }
+
+    private void rekey() throws GeneralSecurityException {
+        seedSource.nextBytes(seed);
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(seed, 0, KEY_SIZE, "AES"), new IvParameterSpec(seed, KEY_SIZE, COUNTER_SIZE));
+        } finally {
+            Arrays.fill(seed, (byte) 0);
+        }
+        remaining = MAX_BYTES_PER_KEY;
+    }
+}
@@ -0,0 +1,151 @@
+package com.touscm.otpauth;
+
+import javax.validation.constraints.NotBlank;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 记录各密钥最近一次验证匹配的时间窗口偏移
+ * <p>
+ * 容许时钟偏移的验证先检查记录的偏移, 命中时只需一次HMAC计算; 未命中时按常规顺序检查其余窗口
+ * <p>
+ * 每个槽位是一个long: 高56位为密钥哈希的标签, 低8位为有符号偏移; 每个密钥可使用相邻的两个槽位, 均被占用时后写入的覆盖先写入的,
+ * 内存占用为槽位数量*8字节. 记录仅作为检查顺序的提示, 冲突或覆盖不影响验证结果
+ */
+public final class DriftStore {
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    static final int NONE = Integer.MIN_VALUE;
+
+    private static final long TAG_MASK = ~0xFFL;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder savedCount = new LongAdder();
+
+    public DriftStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 槽位数量, 向上取整为2的幂, 至少为2
+     */
+    public DriftStore(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+
+        int size = 2;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 取得密钥记录的时间窗口偏移
+     *
+     * @param secret 密钥
+     * @return 偏移, 无记录时为null
+     */
+    public Integer getOffset(@NotBlank String secret) {
+        if (secret == null || secret.length() == 0) return null;
+
+        int offset = get(hash(secret));
+        return offset == NONE ? null : offset;
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * 取得记录的偏移验证命中的次数
+     *
+     * @return 次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 取得记录的偏移验证未命中的次数, 每次未命中多计算一次HMAC
+     *
+     * @return 次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 取得相比常规检查顺序累计节省的HMAC计算次数, 已扣除未命中时多出的计算
+     *
+     * @return 次数
+     */
+    public long getSavedComputations() {
+        return savedCount.sum();
+    }
+
+    /**
+     * 清空全部记录
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0);
+        }
+    }
+
+    static long hash(String secret) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < secret.length(); i++) {
+            h = (h ^ secret.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+
+        // 标签为0的槽位表示空
+        return (h & TAG_MASK) == 0 ? h | 0x100 : h;
+    }
+
+    int get(long hash) {
+        int index = index(hash);
+        long slot = slots.get(index);
+        if ((slot & TAG_MASK) != (hash & TAG_MASK)) {
+            slot = slots.get(index ^ 1);
+            if ((slot & TAG_MASK) != (hash & TAG_MASK)) {
+                return NONE;
+            }
+        }
+        return (byte) slot;
+    }
+
+    void put(long hash, int offset) {
+        long tag = hash & TAG_MASK;
+        int index = index(hash);
+        long slot = slots.get(index);
+        if (slot != 0 && (slot & TAG_MASK) != tag) {
+            long other = slots.get(index ^ 1);
+            if (other == 0 || (other & TAG_MASK) == tag) {
+                index ^= 1;
+            }
+        }
+        slots.lazySet(index, tag | offset & 0xFF);
+    }
+
+    void recordHit(int saved) {
+        hitCount.increment();
+        savedCount.add(saved);
+    }
+
+    void recordMiss() {
+        missCount.increment();
+        savedCount.decrement();
+    }
+
+    private int index(long hash) {
+        return (int) (hash >>> 32) & mask;
+    }
+}
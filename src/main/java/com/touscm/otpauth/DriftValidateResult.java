@@ -0,0 +1,49 @@
+package com.touscm.otpauth;
+
+/**
+ * 容许时钟偏移的验证结果, 包含匹配的时间窗口偏移
+ */
+public final class DriftValidateResult {
+    static final DriftValidateResult FAILED = new DriftValidateResult(ValidateResult.Failed, 0, 0);
+
+    private final ValidateResult result;
+    private final int offset;
+    private final int computations;
+
+    DriftValidateResult(ValidateResult result, int offset, int computations) {
+        this.result = result;
+        this.offset = offset;
+        this.computations = computations;
+    }
+
+    public ValidateResult getResult() {
+        return result;
+    }
+
+    /**
+     * 取得匹配的时间窗口相对当前窗口的偏移, 负数表示客户端时钟落后; 验证失败时为0
+     *
+     * @return 窗口偏移
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * 取得本次验证计算HMAC的次数
+     *
+     * @return 次数
+     */
+    public int getComputations() {
+        return computations;
+    }
+
+    public boolean isSuccess() {
+        return result == ValidateResult.Success;
+    }
+
+    @Override
+    public String toString() {
+        return "DriftValidateResult{result=" + result + ", offset=" + offset + ", computations=" + computations + "}";
+    }
+}
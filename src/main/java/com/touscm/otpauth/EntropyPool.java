@@ -0,0 +1,179 @@
+package com.touscm.otpauth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.validation.constraints.NotNull;
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 后台预取的随机数池
+ * <p>
+ * 后台线程持续从底层来源取得随机字节写入环形缓冲区, 创建密钥时无锁地从缓冲区读取; 缓冲区不足时直接使用底层来源, 并计入回退次数
+ */
+public final class EntropyPool implements EntropySource, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(EntropyPool.class);
+
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+    public static final int REFILL_CHUNK_SIZE = 1024;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long ERROR_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final EntropySource source;
+    private final byte[] ring;
+    private final int mask;
+
+    // 已消费与已写入的累计字节数, 二者之差为可用字节数
+    private final AtomicLong readPosition = new AtomicLong();
+    private volatile long writePosition;
+
+    private final LongAdder servedCount = new LongAdder();
+    private final LongAdder fallbackCount = new LongAdder();
+
+    private final Thread refiller;
+    private volatile boolean closed;
+
+    private EntropyPool(EntropySource source, int capacity) {
+        int size = REFILL_CHUNK_SIZE;
+        while (size < capacity) {
+            size <<= 1;
+        }
+
+        this.source = source;
+        this.ring = new byte[size];
+        this.mask = size - 1;
+        this.refiller = new Thread(this::refill, "otpauth-entropy-pool");
+        this.refiller.setDaemon(true);
+    }
+
+    /**
+     * 创建并启动随机数池
+     *
+     * @param source 底层随机数来源
+     * @return 随机数池
+     */
+    public static EntropyPool start(@NotNull EntropySource source) {
+        return start(source, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 创建并启动随机数池
+     *
+     * @param source   底层随机数来源
+     * @param capacity 缓冲区字节数, 向上取整为2的幂
+     * @return 随机数池
+     */
+    public static EntropyPool start(@NotNull EntropySource source, int capacity) {
+        if (source == null) throw new IllegalArgumentException("entropy source can't be null");
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+
+        EntropyPool pool = new EntropyPool(source, capacity);
+        pool.refiller.start();
+        return pool;
+    }
+
+    @Override
+    public void nextBytes(byte[] bytes) {
+        int length = bytes.length;
+        if (!closed && length <= ring.length) {
+            for (; ; ) {
+                long read = readPosition.get();
+                long available = writePosition - read;
+                if (available < length) {
+                    break;
+                }
+
+                // 先复制再提交: 复制期间若其他线程已消费并被后台线程覆盖, 提交会失败并重试
+                copyOut(read, bytes, length);
+                if (readPosition.compareAndSet(read, read + length)) {
+                    servedCount.increment();
+                    if (available - length < ring.length / 2) {
+                        LockSupport.unpark(refiller);
+                    }
+                    return;
+                }
+            }
+        }
+
+        fallbackCount.increment();
+        LockSupport.unpark(refiller);
+        source.nextBytes(bytes);
+    }
+
+    /**
+     * 取得缓冲区中可用的字节数
+     *
+     * @return 可用字节数
+     */
+    public int getFillLevel() {
+        return (int) Math.max(0, writePosition - readPosition.get());
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * 取得从缓冲区取得随机数的次数
+     *
+     * @return 次数
+     */
+    public long getServedCount() {
+        return servedCount.sum();
+    }
+
+    /**
+     * 取得缓冲区不足而直接使用底层来源的次数
+     *
+     * @return 次数
+     */
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    /**
+     * 停止后台线程, 之后的请求直接使用底层来源
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(refiller);
+    }
+
+    private void copyOut(long position, byte[] bytes, int length) {
+        int start = (int) position & mask;
+        int first = Math.min(length, ring.length - start);
+        System.arraycopy(ring, start, bytes, 0, first);
+        if (first < length) {
+            System.arraycopy(ring, 0, bytes, first, length - first);
+        }
+    }
+
+    private void refill() {
+        byte[] chunk = new byte[REFILL_CHUNK_SIZE];
+        while (!closed) {
+            long write = writePosition;
+            if (ring.length - (write - readPosition.get()) < REFILL_CHUNK_SIZE) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            try {
+                source.nextBytes(chunk);
+            } catch (RuntimeException e) {
+                logger.error("entropy pool refill with exception", e);
+                LockSupport.parkNanos(this, ERROR_PARK_NANOS);
+                continue;
+            }
+
+            // 块大小整除缓冲区大小, 写入区域不会跨越缓冲区末尾
+            System.arraycopy(chunk, 0, ring, (int) write & mask, REFILL_CHUNK_SIZE);
+            writePosition = write + REFILL_CHUNK_SIZE;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.touscm.otpauth;
+
+/**
+ * 创建密钥使用的随机数来源, 实现须线程安全
+ */
+@FunctionalInterface
+public interface EntropySource {
+    /**
+     * 填充随机字节
+     *
+     * @param bytes 目标数组
+     */
+    void nextBytes(byte[] bytes);
+}
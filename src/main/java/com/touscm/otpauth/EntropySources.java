@@ -0,0 +1,109 @@
+package com.touscm.otpauth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.function.Supplier;
+
+/**
+ * 常用的随机数来源
+ * <p>
+ * 单个SecureRandom实例的nextBytes通常是同步方法, 并发创建密钥时各线程在同一把锁上排队; 线程独占或分段的来源可避免该竞争
+ */
+public final class EntropySources {
+    private static final Logger logger = LoggerFactory.getLogger(EntropySources.class);
+
+    public static final String DRBG_ALGORITHM = "DRBG";
+    public static final String NATIVE_NON_BLOCKING_ALGORITHM = "NativePRNGNonBlocking";
+
+    private EntropySources() {
+    }
+
+    /**
+     * 共享给定的SecureRandom实例
+     *
+     * @param random 随机数生成器
+     * @return 随机数来源
+     */
+    public static EntropySource shared(@NotNull SecureRandom random) {
+        if (random == null) throw new IllegalArgumentException("random can't be null");
+        return random::nextBytes;
+    }
+
+    /**
+     * 每个线程使用独立的生成器
+     *
+     * @param factory 生成器工厂
+     * @return 随机数来源
+     */
+    public static EntropySource threadLocal(@NotNull Supplier<SecureRandom> factory) {
+        if (factory == null) throw new IllegalArgumentException("random factory can't be null");
+
+        ThreadLocal<SecureRandom> holder = ThreadLocal.withInitial(factory);
+        return bytes -> holder.get().nextBytes(bytes);
+    }
+
+    /**
+     * 按线程分段使用固定数量的生成器, 适用于线程数量多且不宜为每个线程创建生成器的场景
+     *
+     * @param stripes 分段数量, 向上取整为2的幂
+     * @param factory 生成器工厂
+     * @return 随机数来源
+     */
+    public static EntropySource striped(int stripes, @NotNull Supplier<SecureRandom> factory) {
+        if (stripes <= 0) throw new IllegalArgumentException("stripes must be positive");
+        if (factory == null) throw new IllegalArgumentException("random factory can't be null");
+
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        SecureRandom[] randoms = new SecureRandom[size];
+        for (int i = 0; i < size; i++) {
+            randoms[i] = factory.get();
+        }
+
+        int mask = size - 1;
+        return bytes -> {
+            long id = Thread.currentThread().getId();
+            randoms[(int) (id ^ id >>> 16) & mask].nextBytes(bytes);
+        };
+    }
+
+    /**
+     * 每个线程使用独立的DRBG生成器(Java 9及以上版本), 不支持时使用默认生成器
+     *
+     * @return 随机数来源
+     */
+    public static EntropySource drbg() {
+        return threadLocal(() -> getInstance(DRBG_ALGORITHM));
+    }
+
+    /**
+     * 共享非阻塞的系统生成器(/dev/urandom), 不支持时使用默认生成器
+     *
+     * @return 随机数来源
+     */
+    public static EntropySource nativeNonBlocking() {
+        return shared(getInstance(NATIVE_NON_BLOCKING_ALGORITHM));
+    }
+
+    /**
+     * 取得生成器, 算法不可用时使用默认生成器
+     *
+     * @param algorithm 算法
+     * @return 生成器
+     */
+    static SecureRandom getInstance(@NotBlank String algorithm) {
+        try {
+            return SecureRandom.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            logger.warn("{} RNG algorithm not found, use default SecureRandom", algorithm);
+            return new SecureRandom();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.touscm.otpauth;
+
+/**
+ * HMAC算法, 参照<a href="https://www.rfc-editor.org/rfc/rfc6238#section-1.2">RFC6238, 1.2</a>
+ */
+public enum HashAlgorithm {
+    /**
+     * HmacSHA1, 默认算法
+     */
+    SHA1("HmacSHA1", "SHA1", 20),
+    /**
+     * HmacSHA256
+     */
+    SHA256("HmacSHA256", "SHA256", 32),
+    /**
+     * HmacSHA512
+     */
+    SHA512("HmacSHA512", "SHA512", 64);
+
+    private final String macName;
+    private final String urlName;
+    private final int secretSize;
+    final MacPool macPool;
+
+    HashAlgorithm(String macName, String urlName, int secretSize) {
+        this.macName = macName;
+        this.urlName = urlName;
+        this.secretSize = secretSize;
+        this.macPool = new MacPool(macName);
+    }
+
+    /**
+     * 取得JCA中的MAC算法名称
+     *
+     * @return MAC算法名称
+     */
+    public String getMacName() {
+        return macName;
+    }
+
+    /**
+     * 取得OTPAUTH地址中的算法名称
+     *
+     * @return 算法名称
+     */
+    public String getUrlName() {
+        return urlName;
+    }
+
+    /**
+     * 取得推荐的密钥长度(与摘要长度一致)
+     *
+     * @return 密钥字节数
+     */
+    public int getSecretSize() {
+        return secretSize;
+    }
+}
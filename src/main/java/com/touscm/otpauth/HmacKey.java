@@ -0,0 +1,88 @@
+package com.touscm.otpauth;
+
+import javax.validation.constraints.NotNull;
+import java.security.InvalidKeyException;
+
+/**
+ * 预处理后的HMAC密钥, 密钥相关的计算只做一次, 每次只需处理8字节计数器
+ * <p>
+ * 实例不可变, 可在线程间共享
+ */
+public abstract class HmacKey {
+    private final HashAlgorithm algorithm;
+
+    HmacKey(HashAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * 创建预处理密钥
+     *
+     * @param algorithm HMAC算法
+     * @param keyData   解码后的密钥
+     * @return 预处理密钥
+     */
+    public static HmacKey of(@NotNull HashAlgorithm algorithm, @NotNull byte[] keyData) {
+        if (algorithm == null) throw new IllegalArgumentException("algorithm can't be null");
+        if (keyData == null || keyData.length == 0) throw new IllegalArgumentException("key data can't be empty");
+
+        try {
+            return of(algorithm, keyData.clone(), OtpAuthUtils.isPureJavaHmac());
+        } catch (InvalidKeyException e) {
+            throw new IllegalArgumentException("invalid " + algorithm.getMacName() + " key", e);
+        }
+    }
+
+    /**
+     * 创建预处理密钥, HmacSHA1可使用纯Java实现, 其它算法使用预处理的JCA实现
+     *
+     * @param algorithm HMAC算法
+     * @param keyData   密钥
+     * @param pureJava  是否使用纯Java实现
+     * @return 预处理密钥
+     * @throws InvalidKeyException 密钥无效
+     */
+    static HmacKey of(HashAlgorithm algorithm, byte[] keyData, boolean pureJava) throws InvalidKeyException {
+        if (pureJava && algorithm == HashAlgorithm.SHA1) {
+            return new Sha1HmacKey(keyData);
+        }
+        return new MacHmacKey(algorithm, keyData);
+    }
+
+    public HashAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * 计算给定计数器的HMAC, 并按<a href="https://www.rfc-editor.org/rfc/rfc4226#section-5.3">RFC4226, 5.3</a>动态截断
+     *
+     * @param counter 计数器(时间标识)
+     * @return 31位截断值, 失败时返回-1
+     */
+    abstract int truncate(long counter);
+
+    /**
+     * 动态截断
+     *
+     * @param hmacResult HMAC结果
+     * @return 31位截断值
+     */
+    static int truncate(byte[] hmacResult) {
+        // https://www.rfc-editor.org/rfc/rfc4226#section-5.4
+        int offset = hmacResult[hmacResult.length - 1] & 0xF;
+        return (hmacResult[offset] & 0x7f) << 24 | (hmacResult[offset + 1] & 0xff) << 16 | (hmacResult[offset + 2] & 0xff) << 8 | (hmacResult[offset + 3] & 0xff);
+    }
+
+    /**
+     * 计数器转为大端字节序(RFC4226, 5.2. Description)
+     *
+     * @param counter 计数器
+     * @param data    8字节输出
+     */
+    static void writeCounter(long counter, byte[] data) {
+        long value = counter;
+        for (int i = 8; i-- > 0; value >>>= 8) {
+            data[i] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.touscm.otpauth;
+
+/**
+ * 基于计数器的验证结果, 包含验证后应保存的计数器
+ */
+public final class HotpValidateResult {
+    private final ValidateResult result;
+    private final long counter;
+
+    HotpValidateResult(ValidateResult result, long counter) {
+        this.result = result;
+        this.counter = counter;
+    }
+
+    public ValidateResult getResult() {
+        return result;
+    }
+
+    /**
+     * 取得验证后应保存的计数器: 成功时为匹配的计数器之后的值, 失败时为原计数器
+     *
+     * @return 计数器
+     */
+    public long getCounter() {
+        return counter;
+    }
+
+    public boolean isSuccess() {
+        return result == ValidateResult.Success;
+    }
+
+    @Override
+    public String toString() {
+        return "HotpValidateResult{result=" + result + ", counter=" + counter + "}";
+    }
+}
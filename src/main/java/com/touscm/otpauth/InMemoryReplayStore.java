@@ -0,0 +1,102 @@
+package com.touscm.otpauth;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内存中的已验证时间窗口记录, 记录数量达到阈值时清理已过期的记录
+ * <p>
+ * 清理时记下剩余记录中最早的过期时间, 此前不再清理, 记录数量持续高于阈值时也不会每次验证都遍历全部记录
+ */
+public final class InMemoryReplayStore implements ReplayStore {
+    private final Map<String, Accepted> validatedKeyMap = new ConcurrentHashMap<>();
+    private volatile int maxSize;
+    // 下次可清理的时间戳, 清理进行中为Long.MAX_VALUE
+    private final AtomicLong nextSweep = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param maxSize 清理记录的阈值
+     */
+    public InMemoryReplayStore(int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("max size must be positive");
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public boolean tryAccept(String secret, long timeWindow, long expireAt, long timestamp) {
+        if (maxSize <= validatedKeyMap.size()) {
+            sweep(timestamp);
+        }
+
+        // 比较并替换, 并发验证同一密钥同一时间窗口时只有一个成功
+        Accepted accepted = new Accepted(timeWindow, expireAt);
+        for (; ; ) {
+            Accepted cached = validatedKeyMap.get(secret);
+            if (cached == null) {
+                if (validatedKeyMap.putIfAbsent(secret, accepted) == null) {
+                    return true;
+                }
+            } else if (timeWindow <= cached.timeWindow) {
+                return false;
+            } else if (validatedKeyMap.replace(secret, cached, accepted)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 清理已过期的记录, 同一时间只有一个线程清理
+     *
+     * @param timestamp 验证时间戳(毫秒)
+     */
+    private void sweep(long timestamp) {
+        long next = nextSweep.get();
+        if (timestamp < next || !nextSweep.compareAndSet(next, Long.MAX_VALUE)) {
+            return;
+        }
+
+        long earliest = Long.MAX_VALUE;
+        for (Iterator<Accepted> iterator = validatedKeyMap.values().iterator(); iterator.hasNext(); ) {
+            long expireAt = iterator.next().expireAt;
+            if (expireAt <= timestamp) {
+                iterator.remove();
+            } else if (expireAt < earliest) {
+                earliest = expireAt;
+            }
+        }
+        // 无剩余记录时, 之后写入的记录过期时间未知, 达到阈值即可清理
+        nextSweep.set(earliest == Long.MAX_VALUE ? Long.MIN_VALUE : earliest);
+    }
+
+    /**
+     * 取得记录数量
+     *
+     * @return 数量
+     */
+    public int size() {
+        return validatedKeyMap.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 验证成功的时间窗口及其过期时间
+     */
+    private static final class Accepted {
+        private final long timeWindow;
+        private final long expireAt;
+
+        Accepted(long timeWindow, long expireAt) {
+            this.timeWindow = timeWindow;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.touscm.otpauth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+
+/**
+ * 基于JCA的预处理密钥, 保存已完成ipad压缩的MAC原型, 每次计算克隆原型后只处理计数器
+ */
+final class MacHmacKey extends HmacKey {
+    private static final Logger logger = LoggerFactory.getLogger(MacHmacKey.class);
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final MacPool pool;
+    private final SecretKeySpec keySpec;
+    private final Mac prototype;
+
+    /**
+     * @param algorithm HMAC算法
+     * @param keyData   密钥
+     * @throws InvalidKeyException 密钥无效
+     */
+    MacHmacKey(HashAlgorithm algorithm, byte[] keyData) throws InvalidKeyException {
+        super(algorithm);
+        this.pool = algorithm.macPool;
+        this.keySpec = new SecretKeySpec(keyData, pool.getAlgorithm());
+        this.prototype = newPrototype(pool, keySpec);
+    }
+
+    @Override
+    int truncate(long counter) {
+        byte[] data = new byte[8];
+        writeCounter(counter, data);
+
+        Mac mac;
+        if (prototype != null) {
+            try {
+                mac = (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                return -1;
+            }
+        } else {
+            try {
+                mac = pool.get();
+                mac.init(keySpec);
+            } catch (IllegalStateException | InvalidKeyException e) {
+                logger.error("MAC algorithm exception, {} not found", pool.getAlgorithm(), e);
+                return -1;
+            }
+        }
+
+        byte[] hmacResult;
+        try {
+            hmacResult = mac.doFinal(data);
+        } catch (IllegalStateException e) {
+            logger.error("MAC operation exception", e);
+            return -1;
+        }
+        return truncate(hmacResult);
+    }
+
+    /**
+     * 创建原型: 空输入的update会触发ipad块的压缩, 克隆时即带上内层中间状态
+     *
+     * @return MAC原型, 提供者不支持克隆时返回null
+     */
+    private static Mac newPrototype(MacPool pool, SecretKeySpec keySpec) throws InvalidKeyException {
+        Mac mac;
+        try {
+            mac = (Mac) pool.get().clone();
+        } catch (CloneNotSupportedException e) {
+            return null;
+        }
+
+        mac.init(keySpec);
+        mac.update(EMPTY, 0, 0);
+        try {
+            mac.clone();
+        } catch (CloneNotSupportedException e) {
+            return null;
+        }
+        return mac;
+    }
+}
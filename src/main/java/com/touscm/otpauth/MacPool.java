@@ -0,0 +1,41 @@
+package com.touscm.otpauth;
+
+import javax.crypto.Mac;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 线程独占的MAC实例池, 避免每次计算都进行JCA提供者查找
+ */
+final class MacPool {
+    private final String algorithm;
+    private final ThreadLocal<Mac> holder;
+
+    /**
+     * @param algorithm MAC算法
+     */
+    MacPool(String algorithm) {
+        this.algorithm = algorithm;
+        this.holder = ThreadLocal.withInitial(this::newInstance);
+    }
+
+    /**
+     * 取得当前线程的MAC实例, 调用方需重新init后使用, 不得跨线程传递
+     *
+     * @return MAC实例
+     */
+    Mac get() {
+        return holder.get();
+    }
+
+    String getAlgorithm() {
+        return algorithm;
+    }
+
+    private Mac newInstance() {
+        try {
+            return Mac.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " MAC algorithm not found", e);
+        }
+    }
+}
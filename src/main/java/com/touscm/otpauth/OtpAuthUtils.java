@@ -1,20 +1,32 @@
 package com.touscm.otpauth;
 
-import org.apache.commons.codec.binary.Base32;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 /**
  * HOTP: An HMAC-Based One-Time Password Algorithm, specified in <a href="https://www.rfc-editor.org/rfc/rfc4226">RFC4226</a>
@@ -25,27 +37,37 @@ public class OtpAuthUtils {
     public static final int SECRET_SIZE = 20;
     public static final String RANDOM_NUMBER_ALGORITHM = "SHA1PRNG";
     public static final String HASH_ALGORITHM = "HmacSHA1";
+    public static final HashAlgorithm DEFAULT_HASH_ALGORITHM = HashAlgorithm.SHA1;
     public static final long TIME_STEP_SIZE = 30000;
     public static final int KEY_MODULUS = 1000000;
     public static final int MAX_SIZE_CACHE_KEY = 500;
+    public static final int MAX_SIZE_CACHE_HMAC_KEY = 500;
+    public static final int MAX_DRIFT_WINDOWS = 10;
+    public static final int BATCH_VALIDATE_THRESHOLD = 64;
+    public static final int DEFAULT_ASYNC_MAX_PENDING = 1024;
+    public static final int DEFAULT_HOTP_LOOK_AHEAD = 10;
+    public static final int DEFAULT_HOTP_RESYNC_WINDOW = 100;
+    public static final int MAX_HOTP_LOOK_AHEAD = 1000;
 
     public static final String OTP_AUTH_URL = "otpauth://totp/%s?secret=%s";
+    public static final String OTP_AUTH_PARAM_ALGORITHM = "&algorithm=";
+    public static final String OTP_AUTH_PARAM_DIGITS = "&digits=";
+    public static final String OTP_AUTH_PARAM_PERIOD = "&period=";
     public static final String QR_SERVER_URL = "https://api.qrserver.com/v1/create-qr-code/?data=%s&size=200x200&ecc=M&margin=0";
 
-    private static final Base32 codec;
-    private static final SecureRandom random;
+    private static final int ENTROPY_CHUNK_SIZE = 4096;
+    private static final String WARM_UP_SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+    private static final int WARM_UP_SECRET_COUNT = 16;
 
-    private static int maxSize = MAX_SIZE_CACHE_KEY;
-    private static final Map<String, Long> validatedKeyMap = new HashMap<>();
+    private static volatile EntropySource entropySource;
 
-    static {
-        codec = new Base32();
-        try {
-            random = SecureRandom.getInstance(RANDOM_NUMBER_ALGORITHM);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(RANDOM_NUMBER_ALGORITHM + " RNG algorithm not found", e);
-        }
-    }
+    private static final InMemoryReplayStore defaultReplayStore = new InMemoryReplayStore(MAX_SIZE_CACHE_KEY);
+    private static final OtpValidator defaultValidator = OtpValidator.builder().replayStore(defaultReplayStore).build();
+    private static final Map<String, SecretGroupIndex> secretGroups = new ConcurrentHashMap<>();
+    private static final ThreadLocal<byte[]> keyBuffer = ThreadLocal.withInitial(() -> new byte[HashAlgorithm.SHA512.getSecretSize()]);
+    private static volatile Executor asyncExecutor;
+    private static volatile boolean pureJavaHmac = true;
+    private static volatile BoundedCache<HmacKeyId, HmacKey> hmacKeyCache = new BoundedCache<>(MAX_SIZE_CACHE_HMAC_KEY);
 
     /**
      * 创建密钥
@@ -54,8 +76,80 @@ public class OtpAuthUtils {
      */
     public static String createSecret() {
         byte[] buffer = new byte[SECRET_SIZE];
-        random.nextBytes(buffer);
-        return codec.encodeToString(buffer);
+        entropySource().nextBytes(buffer);
+        return Base32Codec.encodeToString(buffer);
+    }
+
+    /**
+     * 创建密钥, 长度与算法摘要长度一致
+     *
+     * @param algorithm HMAC算法
+     * @return 密钥
+     */
+    public static String createSecret(@NotNull HashAlgorithm algorithm) {
+        byte[] buffer = new byte[algorithm.getSecretSize()];
+        entropySource().nextBytes(buffer);
+        return Base32Codec.encodeToString(buffer);
+    }
+
+    /**
+     * 批量创建密钥
+     *
+     * @param count 密钥数量
+     * @return 密钥
+     */
+    public static String[] createSecrets(int count) {
+        return createSecrets(count, DEFAULT_HASH_ALGORITHM);
+    }
+
+    /**
+     * 批量创建密钥, 按块取得随机数, 编码复用同一字符缓冲区
+     * <p>
+     * 随机字节由AES-CTR密钥流生成, 每64KiB从随机数来源取得新的AES-256密钥与计数器(同CTR_DRBG); AES-CTR不可用时直接使用随机数来源
+     *
+     * @param count     密钥数量
+     * @param algorithm HMAC算法
+     * @return 密钥
+     */
+    public static String[] createSecrets(int count, @NotNull HashAlgorithm algorithm) {
+        if (count < 0) throw new IllegalArgumentException("secret count can't be negative");
+        if (algorithm == null) throw new IllegalArgumentException("algorithm can't be null");
+
+        int secretSize = algorithm.getSecretSize();
+        int chunkSecrets = Math.max(1, Math.min(count, ENTROPY_CHUNK_SIZE / secretSize));
+        byte[] chunk = new byte[chunkSecrets * secretSize];
+        char[] chars = new char[Base32Codec.encodedLength(secretSize)];
+
+        EntropySource source = entropySource();
+        if (count > 1) {
+            try {
+                source = new CtrKeystream(source);
+            } catch (GeneralSecurityException e) {
+                logger.warn("{} not available, create secrets from entropy source directly", CtrKeystream.CIPHER_ALGORITHM, e);
+            }
+        }
+
+        String[] secrets = new String[count];
+        for (int created = 0; created < count; ) {
+            source.nextBytes(chunk);
+            for (int offset = 0; offset < chunk.length && created < count; offset += secretSize) {
+                int length = Base32Codec.encode(chunk, offset, secretSize, chars, 0);
+                secrets[created++] = new String(chars, 0, length);
+            }
+        }
+        Arrays.fill(chunk, (byte) 0);
+        return secrets;
+    }
+
+    /**
+     * 设置创建密钥使用的随机数来源, 默认共享同一个SHA1PRNG实例, 在首次创建密钥时初始化
+     *
+     * @param source 随机数来源
+     * @see EntropySources
+     */
+    public static void setEntropySource(@NotNull EntropySource source) {
+        if (source == null) throw new IllegalArgumentException("entropy source can't be null");
+        entropySource = source;
     }
 
     /**
@@ -69,6 +163,43 @@ public class OtpAuthUtils {
         return String.format(OTP_AUTH_URL, name, secret);
     }
 
+    /**
+     * 取得OTPAUTH地址
+     *
+     * @param name      名称
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @return OTPAUTH地址
+     */
+    public static String getOtpAuthUrl(@NotBlank String name, @NotBlank String secret, @NotNull HashAlgorithm algorithm) {
+        return getOtpAuthUrl(name, secret, algorithm, OtpCode.DEFAULT_DIGITS);
+    }
+
+    /**
+     * 取得OTPAUTH地址
+     *
+     * @param name      名称
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @param digits    验证码位数
+     * @return OTPAUTH地址
+     */
+    public static String getOtpAuthUrl(@NotBlank String name, @NotBlank String secret, @NotNull HashAlgorithm algorithm, int digits) {
+        OtpCode.checkDigits(digits);
+        return buildOtpAuthUrl(name, secret, algorithm, digits, OtpSecret.DEFAULT_PERIOD);
+    }
+
+    /**
+     * 取得OTPAUTH地址
+     *
+     * @param name   名称
+     * @param secret 已解码的密钥
+     * @return OTPAUTH地址
+     */
+    public static String getOtpAuthUrl(@NotBlank String name, @NotNull OtpSecret secret) {
+        return buildOtpAuthUrl(name, secret.getSecret(), secret.getAlgorithm(), secret.getDigits(), secret.getPeriod());
+    }
+
     /**
      * 取得OTPAUTH二维码地址
      *
@@ -77,7 +208,43 @@ public class OtpAuthUtils {
      * @return 二维码地址
      */
     public static String getOtpQrCodeUrl(@NotBlank String name, @NotBlank String secret) {
-        return String.format(QR_SERVER_URL, getOtpAuthUrl(name, secret));
+        return String.format(QR_SERVER_URL, encodeUrl(getOtpAuthUrl(name, secret)));
+    }
+
+    /**
+     * 取得OTPAUTH二维码地址
+     *
+     * @param name      名称
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @return 二维码地址
+     */
+    public static String getOtpQrCodeUrl(@NotBlank String name, @NotBlank String secret, @NotNull HashAlgorithm algorithm) {
+        return String.format(QR_SERVER_URL, encodeUrl(getOtpAuthUrl(name, secret, algorithm)));
+    }
+
+    /**
+     * 取得OTPAUTH二维码地址
+     *
+     * @param name      名称
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @param digits    验证码位数
+     * @return 二维码地址
+     */
+    public static String getOtpQrCodeUrl(@NotBlank String name, @NotBlank String secret, @NotNull HashAlgorithm algorithm, int digits) {
+        return String.format(QR_SERVER_URL, encodeUrl(getOtpAuthUrl(name, secret, algorithm, digits)));
+    }
+
+    /**
+     * 取得OTPAUTH二维码地址
+     *
+     * @param name   名称
+     * @param secret 已解码的密钥
+     * @return 二维码地址
+     */
+    public static String getOtpQrCodeUrl(@NotBlank String name, @NotNull OtpSecret secret) {
+        return String.format(QR_SERVER_URL, encodeUrl(getOtpAuthUrl(name, secret)));
     }
 
     /**
@@ -94,6 +261,35 @@ public class OtpAuthUtils {
         return QRCodeUtils.saveQRCodeFile(getOtpAuthUrl(name, secret), filePath, width, height);
     }
 
+    /**
+     * 保存OTPAUTH二维码图片
+     *
+     * @param name      名称
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @param filePath  保存文件地址
+     * @param width     图片宽度
+     * @param height    图片高度
+     * @return 保存结果
+     */
+    public static boolean saveOtpQRCodeFile(@NotBlank String name, @NotBlank String secret, @NotNull HashAlgorithm algorithm, @NotBlank String filePath, int width, int height) {
+        return QRCodeUtils.saveQRCodeFile(getOtpAuthUrl(name, secret, algorithm), filePath, width, height);
+    }
+
+    /**
+     * 保存OTPAUTH二维码图片
+     *
+     * @param name     名称
+     * @param secret   已解码的密钥
+     * @param filePath 保存文件地址
+     * @param width    图片宽度
+     * @param height   图片高度
+     * @return 保存结果
+     */
+    public static boolean saveOtpQRCodeFile(@NotBlank String name, @NotNull OtpSecret secret, @NotBlank String filePath, int width, int height) {
+        return QRCodeUtils.saveQRCodeFile(getOtpAuthUrl(name, secret), filePath, width, height);
+    }
+
     /**
      * 写OTPAUTH二维码到输出流
      *
@@ -108,119 +304,1112 @@ public class OtpAuthUtils {
         return QRCodeUtils.writeQRCodeStream(getOtpAuthUrl(name, secret), stream, width, height);
     }
 
-    /* ...... */
+    /**
+     * 写OTPAUTH二维码到输出流
+     *
+     * @param name      名称
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @param stream    输出流
+     * @param width     图片宽度
+     * @param height    图片高度
+     * @return 操作结果
+     */
+    public static boolean writeOtpQRCodeStream(@NotBlank String name, @NotBlank String secret, @NotNull HashAlgorithm algorithm, @NotNull OutputStream stream, int width, int height) {
+        return QRCodeUtils.writeQRCodeStream(getOtpAuthUrl(name, secret, algorithm), stream, width, height);
+    }
 
     /**
-     * 设置清理缓存密钥阈值
-     * @param size 阈值
+     * 写OTPAUTH二维码到输出流
+     *
+     * @param name   名称
+     * @param secret 已解码的密钥
+     * @param stream 输出流
+     * @param width  图片宽度
+     * @param height 图片高度
+     * @return 操作结果
      */
-    public static void setMaxCacheKeySize(int size) {
-        if (MAX_SIZE_CACHE_KEY < size) {
-            maxSize = size;
-        }
+    public static boolean writeOtpQRCodeStream(@NotBlank String name, @NotNull OtpSecret secret, @NotNull OutputStream stream, int width, int height) {
+        return QRCodeUtils.writeQRCodeStream(getOtpAuthUrl(name, secret), stream, width, height);
     }
 
     /* ...... */
 
     /**
-     * 验证验证码
+     * 生成当前时间的验证码
      *
      * @param secret 密钥
-     * @param code   验证码
-     * @return 验证结果
+     * @return 验证码, 计算失败时返回null
      */
-    public static ValidateResult validateCode(@NotBlank String secret, long code) {
-        return validateCode(secret, code, new Date().getTime());
+    public static OtpCode generateCode(@NotBlank String secret) {
+        return generateCode(secret, DEFAULT_HASH_ALGORITHM, OtpCode.DEFAULT_DIGITS, currentTimeMillis());
     }
 
     /**
-     * 验证验证码
+     * 生成验证码
      *
      * @param secret    密钥
-     * @param code      验证码
+     * @param algorithm HMAC算法
+     * @param digits    验证码位数
      * @param timestamp 时间戳
-     * @return 验证结果
+     * @return 验证码, 计算失败时返回null
      */
-    public static ValidateResult validateCode(@NotBlank String secret, long code, long timestamp) {
-        if (secret == null || secret.length() == 0 || code <= 0 || code >= KEY_MODULUS) return ValidateResult.Failed;
+    public static OtpCode generateCode(@NotBlank String secret, @NotNull HashAlgorithm algorithm, int digits, long timestamp) {
+        OtpCode.checkDigits(digits);
+        if (secret == null || secret.length() == 0) throw new IllegalArgumentException("secret can't be empty");
+        if (algorithm == null) throw new IllegalArgumentException("algorithm can't be null");
 
-        byte[] decodedKey = codec.decode(secret);
-        long timeWindow = timestamp / TIME_STEP_SIZE;
+        HmacKey hmacKey = defaultValidator.getHmacKey(algorithm, secret);
+        if (hmacKey == null) throw new IllegalArgumentException("secret isn't valid Base32");
 
-        if (code != calculateCode(decodedKey, timeWindow)) {
-            return ValidateResult.Failed;
-        }
+        int code = calculateCode(hmacKey, digits, timestamp / TIME_STEP_SIZE);
+        return code < 0 ? null : new OtpCode(code, digits);
+    }
 
-        if (!checkCacheKey(secret, timeWindow)) {
-            return ValidateResult.Duplicate;
-        }
-        return ValidateResult.Success;
+    /**
+     * 生成当前时间的验证码
+     *
+     * @param secret 已解码的密钥
+     * @return 验证码, 计算失败时返回null
+     */
+    public static OtpCode generateCode(@NotNull OtpSecret secret) {
+        return generateCode(secret, currentTimeMillis());
     }
 
-    /* ...... */
+    /**
+     * 生成验证码
+     *
+     * @param secret    已解码的密钥
+     * @param timestamp 时间戳
+     * @return 验证码, 计算失败时返回null
+     */
+    public static OtpCode generateCode(@NotNull OtpSecret secret, long timestamp) {
+        if (secret == null) throw new IllegalArgumentException("secret can't be null");
+
+        int code = calculateCode(secret.getHmacKey(), secret.getDigits(), secret.getTimeWindow(timestamp));
+        return code < 0 ? null : new OtpCode(code, secret.getDigits());
+    }
 
     /**
-     * 计算给定密钥, 给定时间的HOTP密码, 参照<a href="https://www.rfc-editor.org/rfc/rfc4226">RFC6238</a>
+     * 按默认选项预热
      *
-     * @param keyData    密钥
-     * @param timeWindow 时间标识
-     * @return 一次性密码
+     * @return 预热结果
      */
-    private static int calculateCode(byte[] keyData, long timeWindow) {
-        byte[] data = new byte[8];
-        long value = timeWindow;
+    public static WarmUpResult warmUp() {
+        return warmUp(new WarmUpOptions());
+    }
+
+    /**
+     * 预热: 依次执行Base32解码、验证码计算、密钥创建与二维码生成, 提前完成JCA提供者加载、MAC初始化、JIT编译与AWT/ImageIO初始化
+     * <p>
+     * 使用固定的测试密钥, 不写入重复验证缓存; 可在就绪检查中调用, 完成后再接收流量
+     *
+     * @param options 预热选项
+     * @return 预热结果
+     */
+    public static WarmUpResult warmUp(@NotNull WarmUpOptions options) {
+        if (options == null) throw new IllegalArgumentException("warm up options can't be null");
+
+        long start = System.nanoTime();
+        int iterations = options.getIterations();
 
-        // Converting the instant of time from the long representation to a big-endian array of bytes (RFC4226, 5.2. Description).
-        for (int i = 8; i-- > 0; value >>>= 8) {
-            data[i] = (byte) value;
+        byte[] buffer = new byte[Base32Codec.decodedLength(WARM_UP_SECRET)];
+        long begin = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Base32Codec.decode(WARM_UP_SECRET, buffer, 0);
         }
+        long decodeNanos = System.nanoTime() - begin;
 
-        Mac mac;
-        try {
-            mac = Mac.getInstance(HASH_ALGORITHM);
-            mac.init(new SecretKeySpec(keyData, HASH_ALGORITHM));
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            logger.error("MAC algorithm exception, {} not found", HASH_ALGORITHM, e);
-            return -1;
+        Map<HashAlgorithm, Long> calculateNanos = new EnumMap<>(HashAlgorithm.class);
+        int[] codes = new int[1];
+        for (HashAlgorithm algorithm : options.getAlgorithms()) {
+            begin = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                calculateCodes(WARM_UP_SECRET, algorithm, i * TIME_STEP_SIZE, 0, codes);
+            }
+            calculateNanos.put(algorithm, System.nanoTime() - begin);
         }
 
-        byte[] hmacResult;
-        try {
-            hmacResult = mac.doFinal(data);
-        } catch (IllegalStateException e) {
-            logger.error("MAC operation exception", e);
-            return -1;
+        long createSecretNanos = -1;
+        if (options.isCreateSecret()) {
+            begin = System.nanoTime();
+            for (int i = 0; i < WARM_UP_SECRET_COUNT; i++) {
+                createSecret();
+            }
+            createSecretNanos = System.nanoTime() - begin;
         }
 
-        // https://www.rfc-editor.org/rfc/rfc4226#section-5.4
-        int offset = hmacResult[hmacResult.length - 1] & 0xF;
-        int binCode = (hmacResult[offset] & 0x7f) << 24 | (hmacResult[offset + 1] & 0xff) << 16 | (hmacResult[offset + 2] & 0xff) << 8 | (hmacResult[offset + 3] & 0xff);
+        long qrCodeNanos = -1;
+        if (options.isQrCode()) {
+            begin = System.nanoTime();
+            writeOtpQRCodeStream("warmup", WARM_UP_SECRET, new ByteArrayOutputStream(), 200, 200);
+            qrCodeNanos = System.nanoTime() - begin;
+        }
+
+        return new WarmUpResult(decodeNanos, calculateNanos, createSecretNanos, qrCodeNanos, System.nanoTime() - start);
+    }
 
-        return binCode % KEY_MODULUS;
+    /**
+     * 设置清理缓存密钥阈值
+     * @param size 阈值
+     */
+    public static void setMaxCacheKeySize(int size) {
+        if (MAX_SIZE_CACHE_KEY < size) {
+            defaultReplayStore.setMaxSize(size);
+        }
     }
 
     /**
-     * 检查OPT密码是否使用过
+     * 设置预处理密钥缓存数量, 重新设置会清空已缓存的密钥
      *
-     * @param secret     密钥
-     * @param timeWindow 时间标识
-     * @return 检查结果
+     * @param size 缓存数量
      */
-    private static boolean checkCacheKey(String secret, long timeWindow) {
-        if (maxSize <= validatedKeyMap.size()) {
-            validatedKeyMap.keySet().forEach(key -> {
-                if (timeWindow != validatedKeyMap.get(key)) {
-                    validatedKeyMap.remove(key);
-                }
-            });
+    public static void setMaxHmacKeyCacheSize(int size) {
+        if (0 < size) {
+            hmacKeyCache = new BoundedCache<>(size);
         }
+    }
 
-        Long cachedCode;
-        if ((cachedCode = validatedKeyMap.get(secret)) != null && cachedCode == timeWindow) {
-            return false;
+    /**
+     * 设置取得当前时间的来源, 影响不带时间戳参数的方法
+     *
+     * @param source 时间来源, 为null时使用系统时间
+     */
+    public static void setTimeSource(TimeSource source) {
+        defaultValidator.setTimeSource(source);
+    }
+
+    /**
+     * 取得当前时间
+     *
+     * @return 时间戳(毫秒)
+     */
+    static long currentTimeMillis() {
+        return defaultValidator.currentTimeMillis();
+    }
+
+    /**
+     * 设置时钟偏移记录, 容许时钟偏移的验证会先检查密钥上次匹配的窗口偏移, 默认不启用
+     *
+     * @param store 时钟偏移记录, 为null时停用
+     */
+    public static void setDriftStore(DriftStore store) {
+        defaultValidator.setDriftStore(store);
+    }
+
+    /**
+     * 设置验证码预计算服务, 验证已注册的密钥时直接比较预计算的验证码, 默认不启用; 预计算服务应使用与setTimeSource相同的时间来源
+     *
+     * @param precomputer 预计算服务, 为null时停用
+     */
+    public static void setCodePrecomputer(CodePrecomputer precomputer) {
+        defaultValidator.setCodePrecomputer(precomputer);
+    }
+
+    /**
+     * 设置异步验证使用的执行器, 执行器拒绝任务时返回异常完成的Future
+     * <p>
+     * 默认执行器最多容纳DEFAULT_ASYNC_MAX_PENDING个未完成的任务, Java 21及以上版本使用虚拟线程, 否则使用与处理器数量相同的守护线程
+     *
+     * @param executor 执行器, 为null时使用默认执行器
+     */
+    public static void setAsyncExecutor(Executor executor) {
+        asyncExecutor = executor;
+    }
+
+    /**
+     * 设置是否使用纯Java的HMAC-SHA1实现, 默认启用
+     * <p>
+     * 纯Java实现每次计算不分配内存; 在JVM提供SHA-1硬件内联(如x86 SHA-NI)时, JCA实现的单次延迟更低, 但每次计算需克隆MAC对象
+     *
+     * @param enabled 是否启用
+     */
+    public static void setPureJavaHmac(boolean enabled) {
+        if (pureJavaHmac != enabled) {
+            pureJavaHmac = enabled;
+            hmacKeyCache = new BoundedCache<>(hmacKeyCache.capacity());
+            defaultValidator.resetSecretCache();
         }
+    }
 
-        validatedKeyMap.put(secret, timeWindow);
-        return true;
+    /**
+     * 取得随机数来源, 未设置时使用默认来源, 只验证不创建密钥时不会初始化随机数生成器
+     *
+     * @return 随机数来源
+     */
+    private static EntropySource entropySource() {
+        EntropySource source = entropySource;
+        return source != null ? source : DefaultEntropyHolder.SOURCE;
+    }
+
+    static boolean isPureJavaHmac() {
+        return pureJavaHmac;
+    }
+
+    /**
+     * 设置密钥文本缓存数量, 缓存Base32密钥对应的预处理密钥, 重复验证时跳过解码; 默认不启用, 小于等于0时关闭
+     *
+     * @param size 缓存数量
+     */
+    public static void setMaxSecretCacheSize(int size) {
+        defaultValidator.setSecretCacheSize(size);
+    }
+
+    /**
+     * 取得密钥文本缓存命中次数
+     *
+     * @return 命中次数, 未启用时返回0
+     */
+    public static long getSecretCacheHitCount() {
+        return defaultValidator.getSecretCacheHitCount();
+    }
+
+    /**
+     * 取得密钥文本缓存未命中次数
+     *
+     * @return 未命中次数, 未启用时返回0
+     */
+    public static long getSecretCacheMissCount() {
+        return defaultValidator.getSecretCacheMissCount();
+    }
+
+    /**
+     * 设置验证码记录数量, 记录最近验证的密钥在当前时间窗口的验证码, 同一窗口内重复验证时跳过HMAC计算; 默认不启用, 小于等于0时关闭
+     * <p>
+     * 每条记录占16字节, 时间窗口切换后记录自动失效
+     *
+     * @param size 记录数量, 向上取整为2的幂
+     */
+    public static void setCodeMemoSize(int size) {
+        defaultValidator.setCodeMemoSize(size);
+    }
+
+    /**
+     * 取得验证码记录命中次数
+     *
+     * @return 命中次数, 未启用时返回0
+     */
+    public static long getCodeMemoHitCount() {
+        return defaultValidator.getCodeMemoHitCount();
+    }
+
+    /**
+     * 取得验证码记录未命中次数
+     *
+     * @return 未命中次数, 未启用时返回0
+     */
+    public static long getCodeMemoMissCount() {
+        return defaultValidator.getCodeMemoMissCount();
+    }
+
+    /**
+     * 取得静态验证方法使用的默认验证器, 可用于读取验证计数
+     *
+     * @return 默认验证器
+     */
+    public static OtpValidator getDefaultValidator() {
+        return defaultValidator;
+    }
+
+    /**
+     * 取得预处理密钥缓存命中次数
+     *
+     * @return 命中次数
+     */
+    public static long getHmacKeyCacheHitCount() {
+        return hmacKeyCache.getHitCount();
+    }
+
+    /**
+     * 取得预处理密钥缓存未命中次数
+     *
+     * @return 未命中次数
+     */
+    public static long getHmacKeyCacheMissCount() {
+        return hmacKeyCache.getMissCount();
+    }
+
+    /* ...... */
+
+    /**
+     * 验证验证码
+     *
+     * @param secret 密钥
+     * @param code   验证码
+     * @return 验证结果
+     */
+    public static ValidateResult validateCode(@NotBlank String secret, long code) {
+        return validateCode(secret, DEFAULT_HASH_ALGORITHM, code);
+    }
+
+    /**
+     * 验证验证码
+     *
+     * @param secret    密钥
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 验证结果
+     */
+    public static ValidateResult validateCode(@NotBlank String secret, long code, long timestamp) {
+        return validateCode(secret, DEFAULT_HASH_ALGORITHM, code, timestamp);
+    }
+
+    /**
+     * 验证验证码
+     *
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @param code      验证码
+     * @return 验证结果
+     */
+    public static ValidateResult validateCode(@NotBlank String secret, @NotNull HashAlgorithm algorithm, long code) {
+        return defaultValidator.validateWindow(secret, null, algorithm, OtpCode.DEFAULT_DIGITS, code, defaultValidator.currentTimeWindow(), TIME_STEP_SIZE);
+    }
+
+    /**
+     * 验证验证码
+     *
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 验证结果
+     */
+    public static ValidateResult validateCode(@NotBlank String secret, @NotNull HashAlgorithm algorithm, long code, long timestamp) {
+        return validateCode(secret, algorithm, OtpCode.DEFAULT_DIGITS, code, timestamp);
+    }
+
+    /**
+     * 验证验证码
+     *
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @param digits    验证码位数
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 验证结果
+     */
+    public static ValidateResult validateCode(@NotBlank String secret, @NotNull HashAlgorithm algorithm, int digits, long code, long timestamp) {
+        OtpCode.checkDigits(digits);
+        return defaultValidator.validateWindow(secret, null, algorithm, digits, code, timestamp / TIME_STEP_SIZE, TIME_STEP_SIZE);
+    }
+
+    /**
+     * 验证验证码
+     *
+     * @param secret 已解码的密钥
+     * @param code   验证码
+     * @return 验证结果
+     */
+    public static ValidateResult validateCode(@NotNull OtpSecret secret, long code) {
+        if (secret != null && secret.getPeriod() == OtpSecret.DEFAULT_PERIOD) {
+            return defaultValidator.validateWindow(secret, code, defaultValidator.currentTimeWindow());
+        }
+        return validateCode(secret, code, currentTimeMillis());
+    }
+
+    /**
+     * 验证验证码, 不再解码和预处理密钥
+     *
+     * @param secret    已解码的密钥
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 验证结果
+     */
+    public static ValidateResult validateCode(@NotNull OtpSecret secret, long code, long timestamp) {
+        if (secret == null) return ValidateResult.Failed;
+        return defaultValidator.validateWindow(secret, code, secret.getTimeWindow(timestamp));
+    }
+
+    /**
+     * 容许时钟偏移的验证, 由近及远依次检查当前窗口、前一窗口、后一窗口..., 匹配即返回
+     *
+     * @param secret        密钥
+     * @param code          验证码
+     * @param timestamp     时间戳
+     * @param pastWindows   向前检查的窗口数量
+     * @param futureWindows 向后检查的窗口数量
+     * @return 验证结果
+     */
+    public static DriftValidateResult validateCodeWithDrift(@NotBlank String secret, long code, long timestamp, int pastWindows, int futureWindows) {
+        OtpValidator.checkDriftWindows(pastWindows, futureWindows);
+        return defaultValidator.validateWithDrift(secret, DEFAULT_HASH_ALGORITHM, OtpCode.DEFAULT_DIGITS, code, timestamp / TIME_STEP_SIZE, TIME_STEP_SIZE, pastWindows, futureWindows);
+    }
+
+    /**
+     * 容许时钟偏移的验证, 由近及远依次检查当前窗口、前一窗口、后一窗口..., 匹配即返回
+     *
+     * @param secret        已解码的密钥
+     * @param code          验证码
+     * @param timestamp     时间戳
+     * @param pastWindows   向前检查的窗口数量
+     * @param futureWindows 向后检查的窗口数量
+     * @return 验证结果
+     */
+    public static DriftValidateResult validateCodeWithDrift(@NotNull OtpSecret secret, long code, long timestamp, int pastWindows, int futureWindows) {
+        OtpValidator.checkDriftWindows(pastWindows, futureWindows);
+        if (secret == null) return DriftValidateResult.FAILED;
+
+        return defaultValidator.validateWithDrift(secret, code, secret.getTimeWindow(timestamp), pastWindows, futureWindows);
+    }
+
+    /**
+     * 批量验证验证码, 使用公共ForkJoinPool并行计算
+     *
+     * @param secrets   密钥
+     * @param codes     验证码, 与密钥一一对应
+     * @param timestamp 时间戳
+     * @return 验证结果, 与密钥一一对应
+     */
+    public static ValidateResult[] validateBatch(@NotNull String[] secrets, @NotNull long[] codes, long timestamp) {
+        return validateBatch(secrets, codes, timestamp, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 批量验证验证码
+     * <p>
+     * 相同密钥只解码和预处理一次, 并在同一任务中按输入顺序验证, 同一时间窗口的重复验证码只有第一个成功; 不同密钥按组拆分到ForkJoinPool并行计算
+     *
+     * @param secrets   密钥
+     * @param codes     验证码, 与密钥一一对应
+     * @param timestamp 时间戳
+     * @param pool      并行计算使用的线程池
+     * @return 验证结果, 与密钥一一对应
+     */
+    public static ValidateResult[] validateBatch(@NotNull String[] secrets, @NotNull long[] codes, long timestamp, @NotNull ForkJoinPool pool) {
+        if (secrets == null || codes == null) throw new IllegalArgumentException("secrets and codes can't be null");
+        if (secrets.length != codes.length) throw new IllegalArgumentException("secrets and codes length must be equal");
+        if (pool == null) throw new IllegalArgumentException("pool can't be null");
+
+        int count = secrets.length;
+        ValidateResult[] results = new ValidateResult[count];
+        if (count == 0) {
+            return results;
+        }
+
+        // 按密钥分组: order中同组的下标连续, 第g组为order[groupStart[g], groupStart[g + 1])
+        Map<String, Integer> groupIds = new HashMap<>();
+        int[] groupOf = new int[count];
+        for (int i = 0; i < count; i++) {
+            Integer groupId = groupIds.get(secrets[i]);
+            if (groupId == null) {
+                groupIds.put(secrets[i], groupId = groupIds.size());
+            }
+            groupOf[i] = groupId;
+        }
+
+        int groupCount = groupIds.size();
+        int[] groupStart = new int[groupCount + 1];
+        for (int i = 0; i < count; i++) {
+            groupStart[groupOf[i] + 1]++;
+        }
+        for (int g = 0; g < groupCount; g++) {
+            groupStart[g + 1] += groupStart[g];
+        }
+        int[] fill = Arrays.copyOf(groupStart, groupCount);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[fill[groupOf[i]]++] = i;
+        }
+
+        BatchValidateTask task = new BatchValidateTask(secrets, codes, timestamp / TIME_STEP_SIZE, order, groupStart, results, 0, groupCount);
+        if (groupCount <= BATCH_VALIDATE_THRESHOLD) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return results;
+    }
+
+    /**
+     * 异步验证验证码, 时间戳取调用时的时间
+     *
+     * @param secret 密钥
+     * @param code   验证码
+     * @return 验证结果
+     */
+    public static CompletableFuture<ValidateResult> validateCodeAsync(@NotBlank String secret, long code) {
+        return validateCodeAsync(secret, code, currentTimeMillis());
+    }
+
+    /**
+     * 异步验证验证码, HMAC计算与重复验证检查在执行器中进行, 不阻塞调用线程
+     *
+     * @param secret    密钥
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 验证结果, 执行器已满时异常完成(RejectedExecutionException)
+     */
+    public static CompletableFuture<ValidateResult> validateCodeAsync(@NotBlank String secret, long code, long timestamp) {
+        return supplyAsync(() -> validateCode(secret, code, timestamp));
+    }
+
+    /**
+     * 异步验证验证码, 时间戳取调用时的时间
+     *
+     * @param secret 已解码的密钥
+     * @param code   验证码
+     * @return 验证结果
+     */
+    public static CompletableFuture<ValidateResult> validateCodeAsync(@NotNull OtpSecret secret, long code) {
+        return validateCodeAsync(secret, code, currentTimeMillis());
+    }
+
+    /**
+     * 异步验证验证码, HMAC计算与重复验证检查在执行器中进行, 不阻塞调用线程
+     *
+     * @param secret    已解码的密钥
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 验证结果, 执行器已满时异常完成(RejectedExecutionException)
+     */
+    public static CompletableFuture<ValidateResult> validateCodeAsync(@NotNull OtpSecret secret, long code, long timestamp) {
+        return supplyAsync(() -> validateCode(secret, code, timestamp));
+    }
+
+    /**
+     * 注册密钥组, 之后可由验证码反查组内的密钥; 重复注册时替换原有的组
+     *
+     * @param groupId 组标识
+     * @param secrets 组内密钥, 时间步长与验证码位数必须一致
+     */
+    public static void registerSecretGroup(@NotBlank String groupId, @NotNull Collection<OtpSecret> secrets) {
+        if (groupId == null || groupId.length() == 0) throw new IllegalArgumentException("group id can't be empty");
+        secretGroups.put(groupId, new SecretGroupIndex(secrets));
+    }
+
+    /**
+     * 取消注册密钥组
+     *
+     * @param groupId 组标识
+     */
+    public static void unregisterSecretGroup(@NotBlank String groupId) {
+        if (groupId != null) {
+            secretGroups.remove(groupId);
+        }
+    }
+
+    /**
+     * 由验证码反查已注册组内的密钥, 每个时间窗口首次查询时批量计算组内验证码, 之后的查询不再计算HMAC
+     *
+     * @param groupId   组标识
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 匹配的密钥, 组未注册或无匹配时为空列表
+     */
+    public static List<OtpSecret> findSecrets(@NotBlank String groupId, long code, long timestamp) {
+        SecretGroupIndex index = groupId == null ? null : secretGroups.get(groupId);
+        return index == null ? Collections.emptyList() : index.find(code, timestamp);
+    }
+
+    /**
+     * 由验证码反查给定密钥中的匹配项, 每次调用都计算全部密钥的验证码; 重复查询同一组密钥时应注册密钥组
+     *
+     * @param secrets   候选密钥, 时间步长与验证码位数必须一致
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 匹配的密钥, 无匹配时为空列表
+     */
+    public static List<OtpSecret> findSecrets(@NotNull Collection<OtpSecret> secrets, long code, long timestamp) {
+        if (secrets == null || secrets.isEmpty()) return Collections.emptyList();
+        return new SecretGroupIndex(secrets).find(code, timestamp);
+    }
+
+    /**
+     * 生成基于计数器的验证码(HOTP)
+     *
+     * @param secret  已解码的密钥
+     * @param counter 计数器
+     * @return 验证码, 计算失败时返回null
+     */
+    public static OtpCode generateHotpCode(@NotNull OtpSecret secret, long counter) {
+        if (secret == null) throw new IllegalArgumentException("secret can't be null");
+        if (counter < 0) throw new IllegalArgumentException("counter can't be negative");
+
+        int code = calculateCode(secret.getHmacKey(), secret.getDigits(), counter);
+        return code < 0 ? null : new OtpCode(code, secret.getDigits());
+    }
+
+    /**
+     * 验证基于计数器的验证码(HOTP), 从服务端保存的计数器开始向后检查默认数量的计数器
+     *
+     * @param secret  密钥
+     * @param code    验证码
+     * @param counter 服务端保存的计数器
+     * @return 验证结果, 成功时包含应保存的新计数器
+     */
+    public static HotpValidateResult validateHotp(@NotBlank String secret, long code, long counter) {
+        return validateHotp(secret, code, counter, DEFAULT_HOTP_LOOK_AHEAD);
+    }
+
+    /**
+     * 验证基于计数器的验证码(HOTP), 从服务端保存的计数器开始向后检查默认数量的计数器
+     *
+     * @param secret  已解码的密钥
+     * @param code    验证码
+     * @param counter 服务端保存的计数器
+     * @return 验证结果, 成功时包含应保存的新计数器
+     */
+    public static HotpValidateResult validateHotp(@NotNull OtpSecret secret, long code, long counter) {
+        return validateHotp(secret, code, counter, DEFAULT_HOTP_LOOK_AHEAD);
+    }
+
+    /**
+     * 验证基于计数器的验证码(HOTP), 从服务端保存的计数器开始向后检查, 容许令牌多次生成而未使用
+     *
+     * @param secret    密钥
+     * @param code      验证码
+     * @param counter   服务端保存的计数器
+     * @param lookAhead 向后检查的计数器数量
+     * @return 验证结果, 成功时包含应保存的新计数器
+     */
+    public static HotpValidateResult validateHotp(@NotBlank String secret, long code, long counter, int lookAhead) {
+        checkHotpWindow(counter, lookAhead);
+        if (secret == null || secret.length() == 0 || code <= 0 || code >= OtpCode.modulus(OtpCode.DEFAULT_DIGITS)) return new HotpValidateResult(ValidateResult.Failed, counter);
+
+        HmacKey hmacKey = defaultValidator.getHmacKey(DEFAULT_HASH_ALGORITHM, secret);
+        if (hmacKey == null) {
+            return new HotpValidateResult(ValidateResult.Failed, counter);
+        }
+        return validateHotp(hmacKey, OtpCode.DEFAULT_DIGITS, code, counter, lookAhead);
+    }
+
+    /**
+     * 验证基于计数器的验证码(HOTP), 从服务端保存的计数器开始向后检查, 容许令牌多次生成而未使用
+     *
+     * @param secret    已解码的密钥
+     * @param code      验证码
+     * @param counter   服务端保存的计数器
+     * @param lookAhead 向后检查的计数器数量
+     * @return 验证结果, 成功时包含应保存的新计数器
+     */
+    public static HotpValidateResult validateHotp(@NotNull OtpSecret secret, long code, long counter, int lookAhead) {
+        checkHotpWindow(counter, lookAhead);
+        if (secret == null || code <= 0 || code >= OtpCode.modulus(secret.getDigits())) return new HotpValidateResult(ValidateResult.Failed, counter);
+
+        return validateHotp(secret.getHmacKey(), secret.getDigits(), code, counter, lookAhead);
+    }
+
+    /**
+     * 在默认数量的计数器内重新同步计数器, 要求连续两个验证码匹配相邻的计数器
+     *
+     * @param secret   密钥
+     * @param code     第一个验证码
+     * @param nextCode 第二个验证码
+     * @param counter  服务端保存的计数器
+     * @return 同步结果, 成功时包含应保存的新计数器
+     */
+    public static HotpValidateResult resyncHotp(@NotBlank String secret, long code, long nextCode, long counter) {
+        return resyncHotp(secret, code, nextCode, counter, DEFAULT_HOTP_RESYNC_WINDOW);
+    }
+
+    /**
+     * 在默认数量的计数器内重新同步计数器, 要求连续两个验证码匹配相邻的计数器
+     *
+     * @param secret   已解码的密钥
+     * @param code     第一个验证码
+     * @param nextCode 第二个验证码
+     * @param counter  服务端保存的计数器
+     * @return 同步结果, 成功时包含应保存的新计数器
+     */
+    public static HotpValidateResult resyncHotp(@NotNull OtpSecret secret, long code, long nextCode, long counter) {
+        return resyncHotp(secret, code, nextCode, counter, DEFAULT_HOTP_RESYNC_WINDOW);
+    }
+
+    /**
+     * 重新同步计数器, 要求连续两个验证码匹配相邻的计数器, 参照<a href="https://www.rfc-editor.org/rfc/rfc4226#section-7.4">RFC4226 7.4</a>
+     * <p>
+     * 计数器超出向后检查范围时, 由用户连续生成两个验证码, 在更大的范围内查找
+     *
+     * @param secret       密钥
+     * @param code         第一个验证码
+     * @param nextCode     第二个验证码
+     * @param counter      服务端保存的计数器
+     * @param resyncWindow 查找的计数器数量
+     * @return 同步结果, 成功时包含应保存的新计数器
+     */
+    public static HotpValidateResult resyncHotp(@NotBlank String secret, long code, long nextCode, long counter, int resyncWindow) {
+        checkHotpWindow(counter, resyncWindow);
+        long modulus = OtpCode.modulus(OtpCode.DEFAULT_DIGITS);
+        if (secret == null || secret.length() == 0 || code <= 0 || code >= modulus || nextCode <= 0 || nextCode >= modulus) return new HotpValidateResult(ValidateResult.Failed, counter);
+
+        HmacKey hmacKey = defaultValidator.getHmacKey(DEFAULT_HASH_ALGORITHM, secret);
+        if (hmacKey == null) {
+            return new HotpValidateResult(ValidateResult.Failed, counter);
+        }
+        return resyncHotp(hmacKey, OtpCode.DEFAULT_DIGITS, code, nextCode, counter, resyncWindow);
+    }
+
+    /**
+     * 重新同步计数器, 要求连续两个验证码匹配相邻的计数器, 参照<a href="https://www.rfc-editor.org/rfc/rfc4226#section-7.4">RFC4226 7.4</a>
+     *
+     * @param secret       已解码的密钥
+     * @param code         第一个验证码
+     * @param nextCode     第二个验证码
+     * @param counter      服务端保存的计数器
+     * @param resyncWindow 查找的计数器数量
+     * @return 同步结果, 成功时包含应保存的新计数器
+     */
+    public static HotpValidateResult resyncHotp(@NotNull OtpSecret secret, long code, long nextCode, long counter, int resyncWindow) {
+        checkHotpWindow(counter, resyncWindow);
+        if (secret == null) return new HotpValidateResult(ValidateResult.Failed, counter);
+        long modulus = OtpCode.modulus(secret.getDigits());
+        if (code <= 0 || code >= modulus || nextCode <= 0 || nextCode >= modulus) return new HotpValidateResult(ValidateResult.Failed, counter);
+
+        return resyncHotp(secret.getHmacKey(), secret.getDigits(), code, nextCode, counter, resyncWindow);
+    }
+
+    /**
+     * 计算连续时间窗口的验证码, 密钥只解码和预处理一次
+     * <p>
+     * codes[i]为时间窗口(timestamp / TIME_STEP_SIZE + fromOffset + i)的验证码
+     *
+     * @param secret     密钥
+     * @param timestamp  时间戳
+     * @param fromOffset 起始窗口相对当前窗口的偏移, 如-1表示从上一个窗口开始
+     * @param codes      验证码输出, 长度即窗口数量
+     * @return 计算结果
+     */
+    public static boolean calculateCodes(@NotBlank String secret, long timestamp, int fromOffset, @NotNull int[] codes) {
+        return calculateCodes(secret, DEFAULT_HASH_ALGORITHM, timestamp, fromOffset, codes);
+    }
+
+    /**
+     * 计算连续时间窗口的验证码, 密钥只解码和预处理一次
+     * <p>
+     * codes[i]为时间窗口(timestamp / TIME_STEP_SIZE + fromOffset + i)的验证码
+     *
+     * @param secret     密钥
+     * @param algorithm  HMAC算法
+     * @param timestamp  时间戳
+     * @param fromOffset 起始窗口相对当前窗口的偏移, 如-1表示从上一个窗口开始
+     * @param codes      验证码输出, 长度即窗口数量
+     * @return 计算结果
+     */
+    public static boolean calculateCodes(@NotBlank String secret, @NotNull HashAlgorithm algorithm, long timestamp, int fromOffset, @NotNull int[] codes) {
+        return calculateCodes(secret, algorithm, OtpCode.DEFAULT_DIGITS, timestamp, fromOffset, codes);
+    }
+
+    /**
+     * 计算连续时间窗口的验证码, 密钥只解码和预处理一次
+     * <p>
+     * codes[i]为时间窗口(timestamp / TIME_STEP_SIZE + fromOffset + i)的验证码
+     *
+     * @param secret     密钥
+     * @param algorithm  HMAC算法
+     * @param digits     验证码位数
+     * @param timestamp  时间戳
+     * @param fromOffset 起始窗口相对当前窗口的偏移, 如-1表示从上一个窗口开始
+     * @param codes      验证码输出, 长度即窗口数量
+     * @return 计算结果
+     */
+    public static boolean calculateCodes(@NotBlank String secret, @NotNull HashAlgorithm algorithm, int digits, long timestamp, int fromOffset, @NotNull int[] codes) {
+        OtpCode.checkDigits(digits);
+        if (secret == null || secret.length() == 0) throw new IllegalArgumentException("secret can't be empty");
+        if (algorithm == null) throw new IllegalArgumentException("algorithm can't be null");
+        if (codes == null) throw new IllegalArgumentException("codes can't be null");
+
+        HmacKey hmacKey = defaultValidator.getHmacKey(algorithm, secret);
+        if (hmacKey == null) {
+            return false;
+        }
+        return calculateCodes(hmacKey, digits, timestamp / TIME_STEP_SIZE + fromOffset, codes);
+    }
+
+    /**
+     * 计算连续时间窗口的验证码
+     * <p>
+     * codes[i]为时间窗口(secret.getTimeWindow(timestamp) + fromOffset + i)的验证码
+     *
+     * @param secret     已解码的密钥
+     * @param timestamp  时间戳
+     * @param fromOffset 起始窗口相对当前窗口的偏移, 如-1表示从上一个窗口开始
+     * @param codes      验证码输出, 长度即窗口数量
+     * @return 计算结果
+     */
+    public static boolean calculateCodes(@NotNull OtpSecret secret, long timestamp, int fromOffset, @NotNull int[] codes) {
+        if (secret == null) throw new IllegalArgumentException("secret can't be null");
+        if (codes == null) throw new IllegalArgumentException("codes can't be null");
+
+        return calculateCodes(secret.getHmacKey(), secret.getDigits(), secret.getTimeWindow(timestamp) + fromOffset, codes);
+    }
+
+    /**
+     * 批量计算多个密钥在同一计数器下的验证码, 在Java 17及以上版本且加载了jdk.incubator.vector模块时, HmacSHA1密钥按向量通道并行计算
+     *
+     * @param keys    预处理密钥
+     * @param counter 计数器(时间标识)
+     * @param codes   验证码输出, 长度不小于密钥数量, 计算失败时为-1
+     */
+    public static void calculateBatchCodes(@NotNull HmacKey[] keys, long counter, @NotNull int[] codes) {
+        calculateBatchCodes(keys, counter, OtpCode.DEFAULT_DIGITS, codes);
+    }
+
+    /**
+     * 批量计算多个密钥在同一计数器下的验证码, 在Java 17及以上版本且加载了jdk.incubator.vector模块时, HmacSHA1密钥按向量通道并行计算
+     *
+     * @param keys    预处理密钥
+     * @param counter 计数器(时间标识)
+     * @param digits  验证码位数
+     * @param codes   验证码输出, 长度不小于密钥数量, 计算失败时为-1
+     */
+    public static void calculateBatchCodes(@NotNull HmacKey[] keys, long counter, int digits, @NotNull int[] codes) {
+        OtpCode.checkDigits(digits);
+        if (keys == null) throw new IllegalArgumentException("keys can't be null");
+        if (codes == null || codes.length < keys.length) throw new IllegalArgumentException("codes length can't be less than keys");
+
+        BatchHotp.truncate(keys, counter, codes);
+        for (int i = 0; i < keys.length; i++) {
+            if (codes[i] >= 0) {
+                codes[i] = OtpCode.truncate(codes[i], digits);
+            }
+        }
+    }
+
+    /* ...... */
+
+    /**
+     * 计算给定密钥, 给定时间的HOTP密码, 参照<a href="https://www.rfc-editor.org/rfc/rfc4226">RFC6238</a>
+     *
+     * @param hmacKey    预处理密钥
+     * @param digits     密码位数
+     * @param timeWindow 时间标识
+     * @return 一次性密码
+     */
+    static int calculateCode(HmacKey hmacKey, int digits, long timeWindow) {
+        int binCode = hmacKey.truncate(timeWindow);
+        return binCode < 0 ? -1 : OtpCode.truncate(binCode, digits);
+    }
+
+    /**
+     * 计算从给定时间标识开始的连续验证码
+     *
+     * @param hmacKey    预处理密钥
+     * @param digits     密码位数
+     * @param timeWindow 起始时间标识
+     * @param codes      验证码输出
+     * @return 计算结果
+     */
+    private static boolean calculateCodes(HmacKey hmacKey, int digits, long timeWindow, int[] codes) {
+        for (int i = 0; i < codes.length; i++) {
+            int binCode = hmacKey.truncate(timeWindow + i);
+            if (binCode < 0) {
+                return false;
+            }
+            codes[i] = OtpCode.truncate(binCode, digits);
+        }
+        return true;
+    }
+
+    static HmacKey decodeHmacKey(HashAlgorithm algorithm, String secret) {
+        byte[] buffer = keyBuffer.get();
+        int length = Base32Codec.decodedLength(secret);
+        if (buffer.length < length) {
+            buffer = new byte[length];
+        }
+
+        if ((length = Base32Codec.decode(secret, buffer, 0)) <= 0) {
+            return null;
+        }
+        try {
+            return getHmacKey(algorithm, buffer, length);
+        } finally {
+            Arrays.fill(buffer, 0, length, (byte) 0);
+        }
+    }
+
+    /**
+     * 取得预处理密钥, 优先从缓存中获取
+     *
+     * @param algorithm HMAC算法
+     * @param keyData   密钥
+     * @param length    密钥长度
+     * @return 预处理密钥, 失败时返回null
+     */
+    private static HmacKey getHmacKey(HashAlgorithm algorithm, byte[] keyData, int length) {
+        BoundedCache<HmacKeyId, HmacKey> cache = hmacKeyCache;
+
+        HmacKey hmacKey;
+        if ((hmacKey = cache.get(new HmacKeyId(algorithm, keyData, length))) != null) {
+            return hmacKey;
+        }
+
+        byte[] keyCopy = Arrays.copyOf(keyData, length);
+        try {
+            hmacKey = HmacKey.of(algorithm, keyCopy, pureJavaHmac);
+        } catch (IllegalStateException | InvalidKeyException e) {
+            logger.error("MAC algorithm exception, {} not found", algorithm.getMacName(), e);
+            return null;
+        }
+        return cache.put(new HmacKeyId(algorithm, keyCopy, length), hmacKey);
+    }
+
+    private static String buildOtpAuthUrl(String name, String secret, HashAlgorithm algorithm, int digits, int period) {
+        StringBuilder url = new StringBuilder(String.format(OTP_AUTH_URL, name, secret));
+        if (algorithm != DEFAULT_HASH_ALGORITHM) {
+            url.append(OTP_AUTH_PARAM_ALGORITHM).append(algorithm.getUrlName());
+        }
+        if (digits != OtpCode.DEFAULT_DIGITS) {
+            url.append(OTP_AUTH_PARAM_DIGITS).append(digits);
+        }
+        if (period != OtpSecret.DEFAULT_PERIOD) {
+            url.append(OTP_AUTH_PARAM_PERIOD).append(period);
+        }
+        return url.toString();
+    }
+
+    private static String encodeUrl(String url) {
+        try {
+            return URLEncoder.encode(url, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 encoding not supported", e);
+        }
+    }
+
+    /**
+     * 依次检查计数器counter到counter + lookAhead, 密钥只预处理一次
+     */
+    private static HotpValidateResult validateHotp(HmacKey hmacKey, int digits, long code, long counter, int lookAhead) {
+        for (int i = 0; i <= lookAhead; i++) {
+            if (code == calculateCode(hmacKey, digits, counter + i)) {
+                return new HotpValidateResult(ValidateResult.Success, counter + i + 1);
+            }
+        }
+        return new HotpValidateResult(ValidateResult.Failed, counter);
+    }
+
+    /**
+     * 依次检查计数器, 每个计数器的验证码只计算一次, 作为前一计数器的后续验证码复用
+     */
+    private static HotpValidateResult resyncHotp(HmacKey hmacKey, int digits, long code, long nextCode, long counter, int resyncWindow) {
+        int current = calculateCode(hmacKey, digits, counter);
+        for (int i = 0; i <= resyncWindow; i++) {
+            int next = calculateCode(hmacKey, digits, counter + i + 1);
+            if (code == current && nextCode == next) {
+                return new HotpValidateResult(ValidateResult.Success, counter + i + 2);
+            }
+            current = next;
+        }
+        return new HotpValidateResult(ValidateResult.Failed, counter);
+    }
+
+    private static void checkHotpWindow(long counter, int window) {
+        if (counter < 0) throw new IllegalArgumentException("counter can't be negative");
+        if (window < 0 || MAX_HOTP_LOOK_AHEAD < window) throw new IllegalArgumentException("look-ahead window must be between 0 and " + MAX_HOTP_LOOK_AHEAD);
+    }
+
+    /**
+     * 在异步执行器中执行, 拒绝时返回异常完成的Future而不是抛出异常
+     */
+    private static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        Executor executor = asyncExecutor;
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor != null ? executor : DefaultAsyncExecutorHolder.EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * 默认随机数来源, 首次访问时初始化
+     */
+    private static final class DefaultEntropyHolder {
+        private static final EntropySource SOURCE;
+
+        static {
+            try {
+                SOURCE = EntropySources.shared(SecureRandom.getInstance(RANDOM_NUMBER_ALGORITHM));
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(RANDOM_NUMBER_ALGORITHM + " RNG algorithm not found", e);
+            }
+        }
+    }
+
+    /**
+     * 默认异步执行器, 首次访问时初始化
+     */
+    private static final class DefaultAsyncExecutorHolder {
+        private static final Executor EXECUTOR = BoundedExecutor.createDefault(DEFAULT_ASYNC_MAX_PENDING);
+    }
+
+    /**
+     * 批量验证任务, 按密钥分组拆分
+     */
+    private static final class BatchValidateTask extends RecursiveAction {
+        private final String[] secrets;
+        private final long[] codes;
+        private final long timeWindow;
+        private final int[] order;
+        private final int[] groupStart;
+        private final ValidateResult[] results;
+        private final int fromGroup;
+        private final int toGroup;
+
+        BatchValidateTask(String[] secrets, long[] codes, long timeWindow, int[] order, int[] groupStart, ValidateResult[] results, int fromGroup, int toGroup) {
+            this.secrets = secrets;
+            this.codes = codes;
+            this.timeWindow = timeWindow;
+            this.order = order;
+            this.groupStart = groupStart;
+            this.results = results;
+            this.fromGroup = fromGroup;
+            this.toGroup = toGroup;
+        }
+
+        @Override
+        protected void compute() {
+            if (toGroup - fromGroup <= BATCH_VALIDATE_THRESHOLD) {
+                for (int g = fromGroup; g < toGroup; g++) {
+                    int from = groupStart[g];
+                    defaultValidator.validateGroup(secrets[order[from]], DEFAULT_HASH_ALGORITHM, OtpCode.DEFAULT_DIGITS, codes, order, from, groupStart[g + 1], timeWindow, TIME_STEP_SIZE, results);
+                }
+                return;
+            }
+
+            int middle = (fromGroup + toGroup) >>> 1;
+            invokeAll(new BatchValidateTask(secrets, codes, timeWindow, order, groupStart, results, fromGroup, middle),
+                    new BatchValidateTask(secrets, codes, timeWindow, order, groupStart, results, middle, toGroup));
+        }
+    }
+
+    /**
+     * 预处理密钥缓存键
+     */
+    private static final class HmacKeyId {
+        private final HashAlgorithm algorithm;
+        private final byte[] keyData;
+        private final int length;
+        private final int hash;
+
+        HmacKeyId(HashAlgorithm algorithm, byte[] keyData, int length) {
+            this.algorithm = algorithm;
+            this.keyData = keyData;
+            this.length = length;
+
+            int hash = algorithm.ordinal();
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + keyData[i];
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof HmacKeyId)) return false;
+            HmacKeyId that = (HmacKeyId) o;
+            if (algorithm != that.algorithm || length != that.length) return false;
+            for (int i = 0; i < length; i++) {
+                if (keyData[i] != that.keyData[i]) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.touscm.otpauth;
+
+/**
+ * 一次性密码, 同时提供整数值与补零后的字符形式
+ */
+public final class OtpCode implements CharSequence {
+    public static final int MIN_DIGITS = 6;
+    public static final int MAX_DIGITS = 10;
+    public static final int DEFAULT_DIGITS = 6;
+
+    private static final int[] DIGITS_POWER = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+
+    private final int value;
+    private final int digits;
+
+    /**
+     * @param value  密码值
+     * @param digits 密码位数
+     */
+    public OtpCode(int value, int digits) {
+        checkDigits(digits);
+        if (value < 0 || digits < MAX_DIGITS && value >= DIGITS_POWER[digits]) throw new IllegalArgumentException("code value out of range");
+
+        this.value = value;
+        this.digits = digits;
+    }
+
+    /**
+     * 检查密码位数
+     *
+     * @param digits 密码位数
+     */
+    public static void checkDigits(int digits) {
+        if (digits < MIN_DIGITS || MAX_DIGITS < digits) throw new IllegalArgumentException("code digits must be between " + MIN_DIGITS + " and " + MAX_DIGITS);
+    }
+
+    /**
+     * 取得密码位数对应的模数
+     *
+     * @param digits 密码位数
+     * @return 模数
+     */
+    public static long modulus(int digits) {
+        return digits < MAX_DIGITS ? DIGITS_POWER[digits] : 10L * DIGITS_POWER[MAX_DIGITS - 1];
+    }
+
+    /**
+     * 31位截断值取模, 10位密码不小于截断值上限, 无需取模
+     *
+     * @param binCode 截断值
+     * @param digits  密码位数
+     * @return 密码值
+     */
+    static int truncate(int binCode, int digits) {
+        return digits < MAX_DIGITS ? binCode % DIGITS_POWER[digits] : binCode;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public int getDigits() {
+        return digits;
+    }
+
+    /**
+     * 写入补零后的字符
+     *
+     * @param dest   目标数组
+     * @param offset 起始位置
+     */
+    public void getChars(char[] dest, int offset) {
+        int remaining = value;
+        for (int i = offset + digits; i-- > offset; remaining /= 10) {
+            dest[i] = (char) ('0' + remaining % 10);
+        }
+    }
+
+    /**
+     * 取得补零后的字符
+     *
+     * @return 字符数组
+     */
+    public char[] toCharArray() {
+        char[] chars = new char[digits];
+        getChars(chars, 0);
+        return chars;
+    }
+
+    @Override
+    public int length() {
+        return digits;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || digits <= index) throw new IndexOutOfBoundsException("index: " + index);
+        return (char) ('0' + value / DIGITS_POWER[digits - 1 - index] % 10);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OtpCode)) return false;
+        OtpCode that = (OtpCode) o;
+        return value == that.value && digits == that.digits;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * value + digits;
+    }
+
+    @Override
+    public String toString() {
+        return new String(toCharArray());
+    }
+}
@@ -0,0 +1,101 @@
+package com.touscm.otpauth;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+/**
+ * 已解码的密钥, 包含预处理密钥、算法、验证码位数与时间步长
+ * <p>
+ * 实例不可变, 可在会话内缓存后重复使用, 验证与生成时不再解码和预处理密钥
+ */
+public final class OtpSecret {
+    public static final int DEFAULT_PERIOD = (int) (OtpAuthUtils.TIME_STEP_SIZE / 1000);
+
+    private final String secret;
+    private final HmacKey hmacKey;
+    private final int digits;
+    private final int period;
+
+    private OtpSecret(String secret, HmacKey hmacKey, int digits, int period) {
+        this.secret = secret;
+        this.hmacKey = hmacKey;
+        this.digits = digits;
+        this.period = period;
+    }
+
+    /**
+     * 从Base32密钥创建, 使用默认算法、位数与时间步长
+     *
+     * @param secret 密钥
+     * @return 已解码的密钥
+     */
+    public static OtpSecret fromBase32(@NotBlank String secret) {
+        return fromBase32(secret, OtpAuthUtils.DEFAULT_HASH_ALGORITHM, OtpCode.DEFAULT_DIGITS, DEFAULT_PERIOD);
+    }
+
+    /**
+     * 从Base32密钥创建
+     *
+     * @param secret    密钥
+     * @param algorithm HMAC算法
+     * @param digits    验证码位数
+     * @param period    时间步长(秒)
+     * @return 已解码的密钥
+     */
+    public static OtpSecret fromBase32(@NotBlank String secret, @NotNull HashAlgorithm algorithm, int digits, int period) {
+        if (secret == null || secret.length() == 0) throw new IllegalArgumentException("secret can't be empty");
+        if (algorithm == null) throw new IllegalArgumentException("algorithm can't be null");
+        if (period <= 0) throw new IllegalArgumentException("period must be positive");
+        OtpCode.checkDigits(digits);
+
+        byte[] keyData = Base32Codec.decode(secret);
+        if (keyData == null || keyData.length == 0) throw new IllegalArgumentException("secret isn't valid Base32");
+
+        return new OtpSecret(secret, HmacKey.of(algorithm, keyData), digits, period);
+    }
+
+    /**
+     * 取得Base32密钥
+     *
+     * @return 密钥
+     */
+    public String getSecret() {
+        return secret;
+    }
+
+    public HmacKey getHmacKey() {
+        return hmacKey;
+    }
+
+    public HashAlgorithm getAlgorithm() {
+        return hmacKey.getAlgorithm();
+    }
+
+    public int getDigits() {
+        return digits;
+    }
+
+    /**
+     * 取得时间步长
+     *
+     * @return 时间步长(秒)
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * 取得时间戳所在的时间窗口
+     *
+     * @param timestamp 时间戳
+     * @return 时间标识
+     */
+    public long getTimeWindow(long timestamp) {
+        return timestamp / (period * 1000L);
+    }
+
+    @Override
+    public String toString() {
+        return "OtpSecret{algorithm=" + getAlgorithm() + ", digits=" + digits + ", period=" + period + "}";
+    }
+}
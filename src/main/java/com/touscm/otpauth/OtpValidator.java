@@ -0,0 +1,721 @@
+package com.touscm.otpauth;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.Clock;
+
+/**
+ * 验证器, 持有算法、位数、时间步长、容许的时钟偏移以及重复验证记录、时间来源、缓存与计数
+ * <p>
+ * 各实例的状态相互独立, 多租户时每个租户使用各自的实例; OtpAuthUtils的静态方法使用默认实例
+ */
+public final class OtpValidator {
+    private final HashAlgorithm algorithm;
+    private final int digits;
+    private final int period;
+    private final long stepMillis;
+    private final int pastWindows;
+    private final int futureWindows;
+    private final ReplayStore replayStore;
+    private final ValidatorMetrics metrics;
+
+    private volatile TimeSource timeSource;
+    private volatile CurrentWindow currentWindow;
+    private volatile DriftStore driftStore;
+    private volatile CodePrecomputer codePrecomputer;
+    private volatile BoundedCache<String, HmacKey> secretCache;
+    private volatile CodeMemo codeMemo;
+
+    private OtpValidator(Builder builder) {
+        this.algorithm = builder.algorithm;
+        this.digits = builder.digits;
+        this.period = builder.period;
+        this.stepMillis = builder.period * 1000L;
+        this.pastWindows = builder.pastWindows;
+        this.futureWindows = builder.futureWindows;
+        this.replayStore = builder.replayStore != null ? builder.replayStore : new InMemoryReplayStore(OtpAuthUtils.MAX_SIZE_CACHE_KEY);
+        this.metrics = builder.metrics;
+        this.timeSource = builder.timeSource;
+        this.currentWindow = new CurrentWindow(-1, stepMillis);
+        this.driftStore = builder.driftStore;
+        this.codePrecomputer = builder.codePrecomputer;
+        this.secretCache = 0 < builder.secretCacheSize ? new BoundedCache<>(builder.secretCacheSize) : null;
+        this.codeMemo = 0 < builder.codeMemoSize ? new CodeMemo(builder.codeMemoSize) : null;
+    }
+
+    /**
+     * 创建验证器构建器
+     *
+     * @return 构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 验证当前时间的验证码
+     *
+     * @param secret 密钥
+     * @param code   验证码
+     * @return 验证结果
+     */
+    public ValidateResult validate(@NotBlank String secret, long code) {
+        return validateConfigured(secret, code, currentTimeWindow());
+    }
+
+    /**
+     * 验证验证码
+     *
+     * @param secret    密钥
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 验证结果
+     */
+    public ValidateResult validate(@NotBlank String secret, long code, long timestamp) {
+        return validateConfigured(secret, code, timestamp / stepMillis);
+    }
+
+    /**
+     * 验证当前时间的验证码, 算法、位数与时间步长取自已解码的密钥
+     *
+     * @param secret 已解码的密钥
+     * @param code   验证码
+     * @return 验证结果
+     */
+    public ValidateResult validate(@NotNull OtpSecret secret, long code) {
+        if (secret != null && secret.getPeriod() == period) {
+            return validateConfigured(secret, code, currentTimeWindow());
+        }
+        return validate(secret, code, currentTimeMillis());
+    }
+
+    /**
+     * 验证验证码, 算法、位数与时间步长取自已解码的密钥
+     *
+     * @param secret    已解码的密钥
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 验证结果
+     */
+    public ValidateResult validate(@NotNull OtpSecret secret, long code, long timestamp) {
+        if (secret == null) return record(ValidateResult.Failed);
+        return validateConfigured(secret, code, secret.getTimeWindow(timestamp));
+    }
+
+    /**
+     * 验证验证码, 结果包含匹配的时间窗口偏移
+     *
+     * @param secret    密钥
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 验证结果
+     */
+    public DriftValidateResult validateWithDrift(@NotBlank String secret, long code, long timestamp) {
+        return validateWithDrift(secret, algorithm, digits, code, timestamp / stepMillis, stepMillis, pastWindows, futureWindows);
+    }
+
+    /**
+     * 验证验证码, 结果包含匹配的时间窗口偏移; 算法、位数与时间步长取自已解码的密钥
+     *
+     * @param secret    已解码的密钥
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 验证结果
+     */
+    public DriftValidateResult validateWithDrift(@NotNull OtpSecret secret, long code, long timestamp) {
+        if (secret == null) return recordDrift(DriftValidateResult.FAILED);
+        return validateWithDrift(secret, code, secret.getTimeWindow(timestamp), pastWindows, futureWindows);
+    }
+
+    public HashAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getDigits() {
+        return digits;
+    }
+
+    /**
+     * 取得时间步长
+     *
+     * @return 时间步长(秒)
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    public int getPastWindows() {
+        return pastWindows;
+    }
+
+    public int getFutureWindows() {
+        return futureWindows;
+    }
+
+    public ReplayStore getReplayStore() {
+        return replayStore;
+    }
+
+    public TimeSource getTimeSource() {
+        return timeSource;
+    }
+
+    /**
+     * 取得验证计数
+     *
+     * @return 验证计数, 未启用时为null
+     */
+    public ValidatorMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 取得密钥文本缓存命中次数
+     *
+     * @return 命中次数, 未启用时返回0
+     */
+    public long getSecretCacheHitCount() {
+        BoundedCache<String, HmacKey> cache = secretCache;
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    /**
+     * 取得密钥文本缓存未命中次数
+     *
+     * @return 未命中次数, 未启用时返回0
+     */
+    public long getSecretCacheMissCount() {
+        BoundedCache<String, HmacKey> cache = secretCache;
+        return cache == null ? 0 : cache.getMissCount();
+    }
+
+    /**
+     * 取得验证码记录命中次数
+     *
+     * @return 命中次数, 未启用时返回0
+     */
+    public long getCodeMemoHitCount() {
+        CodeMemo memo = codeMemo;
+        return memo == null ? 0 : memo.getHitCount();
+    }
+
+    /**
+     * 取得验证码记录未命中次数
+     *
+     * @return 未命中次数, 未启用时返回0
+     */
+    public long getCodeMemoMissCount() {
+        CodeMemo memo = codeMemo;
+        return memo == null ? 0 : memo.getMissCount();
+    }
+
+    /* ...... */
+
+    void setTimeSource(TimeSource source) {
+        timeSource = source != null ? source : TimeSources.system();
+    }
+
+    void setDriftStore(DriftStore store) {
+        driftStore = store;
+    }
+
+    void setCodePrecomputer(CodePrecomputer precomputer) {
+        codePrecomputer = precomputer;
+    }
+
+    void setSecretCacheSize(int size) {
+        secretCache = 0 < size ? new BoundedCache<>(size) : null;
+    }
+
+    void setCodeMemoSize(int size) {
+        codeMemo = 0 < size ? new CodeMemo(size) : null;
+    }
+
+    /**
+     * 清空密钥文本缓存, 切换HMAC实现后使用
+     */
+    void resetSecretCache() {
+        BoundedCache<String, HmacKey> cache = secretCache;
+        if (cache != null) {
+            secretCache = new BoundedCache<>(cache.capacity());
+        }
+    }
+
+    long currentTimeMillis() {
+        return timeSource.currentTimeMillis();
+    }
+
+    /**
+     * 取得当前时间所在的时间窗口, 同一窗口内只比较时间戳而不再做除法
+     *
+     * @return 时间标识
+     */
+    long currentTimeWindow() {
+        long now = timeSource.currentTimeMillis();
+        CurrentWindow window = currentWindow;
+        if (now < window.start || window.end <= now) {
+            currentWindow = window = new CurrentWindow(now / stepMillis, stepMillis);
+        }
+        return window.timeWindow;
+    }
+
+    /**
+     * 验证给定时间窗口的验证码, 使用验证器配置的算法、位数与时钟偏移
+     */
+    private ValidateResult validateConfigured(String secret, long code, long timeWindow) {
+        if (pastWindows == 0 && futureWindows == 0) {
+            return validateWindow(secret, null, algorithm, digits, code, timeWindow, stepMillis);
+        }
+        return validateWithDrift(secret, algorithm, digits, code, timeWindow, stepMillis, pastWindows, futureWindows).getResult();
+    }
+
+    private ValidateResult validateConfigured(OtpSecret secret, long code, long timeWindow) {
+        if (pastWindows == 0 && futureWindows == 0) {
+            return validateWindow(secret, code, timeWindow);
+        }
+        return validateWithDrift(secret, code, timeWindow, pastWindows, futureWindows).getResult();
+    }
+
+    /**
+     * 验证已解码密钥在给定时间窗口的验证码, 不容许时钟偏移
+     */
+    ValidateResult validateWindow(OtpSecret secret, long code, long timeWindow) {
+        return validateWindow(secret.getSecret(), secret.getHmacKey(), secret.getAlgorithm(), secret.getDigits(), code, timeWindow, secret.getPeriod() * 1000L);
+    }
+
+    /**
+     * 验证给定时间窗口的验证码, 不容许时钟偏移
+     *
+     * @param secret      密钥
+     * @param hmacKey     预处理密钥, 为null时由密钥解码
+     * @param algorithm   HMAC算法
+     * @param digits      验证码位数
+     * @param code        验证码
+     * @param timeWindow  时间标识
+     * @param stepMillis  时间步长(毫秒)
+     * @return 验证结果
+     */
+    ValidateResult validateWindow(String secret, HmacKey hmacKey, HashAlgorithm algorithm, int digits, long code, long timeWindow, long stepMillis) {
+        if (secret == null || secret.length() == 0 || algorithm == null || code <= 0 || code >= OtpCode.modulus(digits)) return record(ValidateResult.Failed);
+
+        if (code != expectedCode(secret, hmacKey, algorithm, digits, timeWindow, stepMillis == OtpAuthUtils.TIME_STEP_SIZE)) {
+            return record(ValidateResult.Failed);
+        }
+
+        if (!tryAccept(secret, timeWindow, stepMillis, timeWindow)) {
+            return record(ValidateResult.Duplicate);
+        }
+        return record(ValidateResult.Success);
+    }
+
+    DriftValidateResult validateWithDrift(String secret, HashAlgorithm algorithm, int digits, long code, long timeWindow, long stepMillis, int pastWindows, int futureWindows) {
+        if (secret == null || secret.length() == 0 || code <= 0 || code >= OtpCode.modulus(digits)) return recordDrift(DriftValidateResult.FAILED);
+
+        HmacKey hmacKey = getHmacKey(algorithm, secret);
+        if (hmacKey == null) {
+            return recordDrift(DriftValidateResult.FAILED);
+        }
+        return validateWithDrift(hmacKey, secret, digits, code, timeWindow, stepMillis, pastWindows, futureWindows);
+    }
+
+    DriftValidateResult validateWithDrift(OtpSecret secret, long code, long timeWindow, int pastWindows, int futureWindows) {
+        if (code <= 0 || code >= OtpCode.modulus(secret.getDigits())) return recordDrift(DriftValidateResult.FAILED);
+
+        return validateWithDrift(secret.getHmacKey(), secret.getSecret(), secret.getDigits(), code, timeWindow, secret.getPeriod() * 1000L, pastWindows, futureWindows);
+    }
+
+    /**
+     * 按偏移由近及远检查各时间窗口, 密钥只预处理一次; 启用时钟偏移记录时先检查记录的偏移
+     */
+    private DriftValidateResult validateWithDrift(HmacKey hmacKey, String secret, int digits, long code, long timeWindow, long stepMillis, int pastWindows, int futureWindows) {
+        DriftStore store = driftStore;
+        long driftKey = 0;
+        int known = DriftStore.NONE;
+        int computations = 0;
+
+        if (store != null) {
+            driftKey = DriftStore.hash(secret);
+            known = store.get(driftKey);
+            if (known != DriftStore.NONE && -pastWindows <= known && known <= futureWindows) {
+                computations++;
+                if (code == OtpAuthUtils.calculateCode(hmacKey, digits, timeWindow + known)) {
+                    store.recordHit(probesBefore(known, pastWindows, futureWindows));
+                    return acceptDrift(secret, timeWindow, stepMillis, known, computations);
+                }
+                store.recordMiss();
+            }
+        }
+
+        int maxWindows = Math.max(pastWindows, futureWindows);
+        for (int step = 0; step <= maxWindows; step++) {
+            if ((step == 0 || step <= pastWindows) && -step != known) {
+                computations++;
+                if (code == OtpAuthUtils.calculateCode(hmacKey, digits, timeWindow - step)) {
+                    if (store != null) store.put(driftKey, -step);
+                    return acceptDrift(secret, timeWindow, stepMillis, -step, computations);
+                }
+            }
+            if (0 < step && step <= futureWindows && step != known) {
+                computations++;
+                if (code == OtpAuthUtils.calculateCode(hmacKey, digits, timeWindow + step)) {
+                    if (store != null) store.put(driftKey, step);
+                    return acceptDrift(secret, timeWindow, stepMillis, step, computations);
+                }
+            }
+        }
+        return recordDrift(new DriftValidateResult(ValidateResult.Failed, 0, computations));
+    }
+
+    /**
+     * 常规顺序(0, -1, +1, -2, +2, ...)下检查到给定偏移之前需检查的窗口数量, 只计容许范围内的偏移
+     *
+     * @param offset        时间窗口偏移
+     * @param pastWindows   容许的过去窗口数量
+     * @param futureWindows 容许的未来窗口数量
+     * @return 窗口数量
+     */
+    static int probesBefore(int offset, int pastWindows, int futureWindows) {
+        if (offset == 0) return 0;
+
+        int step = Math.abs(offset);
+        int count = 1 + Math.min(step - 1, pastWindows) + Math.min(step - 1, futureWindows);
+        // 同一距离先检查过去窗口
+        if (0 < offset && step <= pastWindows) {
+            count++;
+        }
+        return count;
+    }
+
+    private DriftValidateResult acceptDrift(String secret, long timeWindow, long stepMillis, int offset, int computations) {
+        if (!tryAccept(secret, timeWindow + offset, stepMillis, timeWindow)) {
+            return recordDrift(new DriftValidateResult(ValidateResult.Duplicate, offset, computations));
+        }
+        return recordDrift(new DriftValidateResult(ValidateResult.Success, offset, computations));
+    }
+
+    /**
+     * 验证同一密钥的一组验证码, 供批量验证使用; 验证码只取得一次, 与单次验证一样使用预计算服务、验证码记录与验证计数
+     *
+     * @param secret     密钥
+     * @param algorithm  HMAC算法
+     * @param digits     验证码位数
+     * @param codes      全部验证码
+     * @param order      按密钥分组排列的验证码下标
+     * @param from       本组在order中的起始位置
+     * @param to         本组在order中的结束位置(不含)
+     * @param timeWindow 时间标识
+     * @param stepMillis 时间步长(毫秒)
+     * @param results    验证结果输出, 与codes下标对应
+     */
+    void validateGroup(String secret, HashAlgorithm algorithm, int digits, long[] codes, int[] order, int from, int to, long timeWindow, long stepMillis, ValidateResult[] results) {
+        boolean validSecret = secret != null && secret.length() != 0;
+        boolean computed = false;
+        int expected = -1;
+
+        for (int i = from; i < to; i++) {
+            int index = order[i];
+            long code = codes[index];
+            if (!validSecret || code <= 0 || code >= OtpCode.modulus(digits)) {
+                results[index] = record(ValidateResult.Failed);
+                continue;
+            }
+
+            if (!computed) {
+                expected = expectedCode(secret, null, algorithm, digits, timeWindow, stepMillis == OtpAuthUtils.TIME_STEP_SIZE);
+                computed = true;
+            }
+            if (code != expected) {
+                results[index] = record(ValidateResult.Failed);
+            } else if (!tryAccept(secret, timeWindow, stepMillis, timeWindow)) {
+                results[index] = record(ValidateResult.Duplicate);
+            } else {
+                results[index] = record(ValidateResult.Success);
+            }
+        }
+    }
+
+    /**
+     * 记录验证成功的时间窗口
+     *
+     * @param secret        密钥
+     * @param timeWindow    验证成功的时间标识
+     * @param stepMillis    时间步长(毫秒)
+     * @param currentWindow 验证时的时间标识, 以其开始时间作为清理过期记录的时间
+     * @return 记录结果, 重复时为false
+     */
+    boolean tryAccept(String secret, long timeWindow, long stepMillis, long currentWindow) {
+        return replayStore.tryAccept(secret, timeWindow, (timeWindow + OtpAuthUtils.MAX_DRIFT_WINDOWS + 1) * stepMillis, currentWindow * stepMillis);
+    }
+
+    /**
+     * 取得时间窗口的验证码, 依次查找预计算服务、验证码记录, 均未命中时计算并记录
+     *
+     * @param secret      密钥
+     * @param hmacKey     预处理密钥, 为null时由密钥解码
+     * @param algorithm   HMAC算法
+     * @param digits      验证码位数
+     * @param timeWindow  时间标识
+     * @param defaultStep 是否为默认时间步长, 预计算服务只支持默认时间步长
+     * @return 验证码, 计算失败时为-1
+     */
+    private int expectedCode(String secret, HmacKey hmacKey, HashAlgorithm algorithm, int digits, long timeWindow, boolean defaultStep) {
+        CodePrecomputer precomputer = codePrecomputer;
+        if (precomputer != null && defaultStep) {
+            int expected = precomputer.lookup(secret, algorithm, digits, timeWindow);
+            if (expected >= 0) {
+                return expected;
+            }
+        }
+
+        CodeMemo memo = codeMemo;
+        long memoKey = 0;
+        if (memo != null) {
+            memoKey = CodeMemo.key(secret, algorithm, digits);
+            int expected = memo.get(memoKey, timeWindow);
+            if (expected >= 0) {
+                return expected;
+            }
+        }
+
+        if (hmacKey == null && (hmacKey = getHmacKey(algorithm, secret)) == null) {
+            return -1;
+        }
+        int expected = OtpAuthUtils.calculateCode(hmacKey, digits, timeWindow);
+        if (metrics != null) {
+            metrics.addComputations(1);
+        }
+        if (memo != null && expected >= 0) {
+            memo.put(memoKey, timeWindow, expected);
+        }
+        return expected;
+    }
+
+    /**
+     * 解码Base32密钥并取得预处理密钥, 启用密钥文本缓存时优先从中获取
+     *
+     * @param algorithm HMAC算法
+     * @param secret    密钥
+     * @return 预处理密钥, 密钥无效时返回null
+     */
+    HmacKey getHmacKey(HashAlgorithm algorithm, String secret) {
+        BoundedCache<String, HmacKey> cache = secretCache;
+        if (cache == null) {
+            return OtpAuthUtils.decodeHmacKey(algorithm, secret);
+        }
+
+        HmacKey hmacKey = cache.get(secret);
+        if (hmacKey != null && hmacKey.getAlgorithm() == algorithm) {
+            return hmacKey;
+        }
+
+        hmacKey = OtpAuthUtils.decodeHmacKey(algorithm, secret);
+        if (hmacKey != null) {
+            cache.put(secret, hmacKey);
+        }
+        return hmacKey;
+    }
+
+    private ValidateResult record(ValidateResult result) {
+        if (metrics != null) {
+            metrics.record(result);
+        }
+        return result;
+    }
+
+    private DriftValidateResult recordDrift(DriftValidateResult result) {
+        if (metrics != null) {
+            metrics.record(result.getResult());
+            metrics.addComputations(result.getComputations());
+        }
+        return result;
+    }
+
+    static void checkDriftWindows(int pastWindows, int futureWindows) {
+        if (pastWindows < 0 || OtpAuthUtils.MAX_DRIFT_WINDOWS < pastWindows || futureWindows < 0 || OtpAuthUtils.MAX_DRIFT_WINDOWS < futureWindows) {
+            throw new IllegalArgumentException("drift windows must be between 0 and " + OtpAuthUtils.MAX_DRIFT_WINDOWS);
+        }
+    }
+
+    /**
+     * 当前时间窗口及其起止时间
+     */
+    private static final class CurrentWindow {
+        private final long timeWindow;
+        private final long start;
+        private final long end;
+
+        CurrentWindow(long timeWindow, long stepMillis) {
+            this.timeWindow = timeWindow;
+            this.start = timeWindow * stepMillis;
+            this.end = start + stepMillis;
+        }
+    }
+
+    /**
+     * 验证器构建器
+     */
+    public static final class Builder {
+        private HashAlgorithm algorithm = OtpAuthUtils.DEFAULT_HASH_ALGORITHM;
+        private int digits = OtpCode.DEFAULT_DIGITS;
+        private int period = OtpSecret.DEFAULT_PERIOD;
+        private int pastWindows;
+        private int futureWindows;
+        private DriftStore driftStore;
+        private ReplayStore replayStore;
+        private TimeSource timeSource = TimeSources.system();
+        private ValidatorMetrics metrics = new ValidatorMetrics();
+        private CodePrecomputer codePrecomputer;
+        private int secretCacheSize;
+        private int codeMemoSize;
+
+        private Builder() {
+        }
+
+        /**
+         * 设置HMAC算法, 默认HmacSHA1
+         *
+         * @param algorithm HMAC算法
+         * @return 构建器
+         */
+        public Builder algorithm(@NotNull HashAlgorithm algorithm) {
+            if (algorithm == null) throw new IllegalArgumentException("algorithm can't be null");
+            this.algorithm = algorithm;
+            return this;
+        }
+
+        /**
+         * 设置验证码位数, 默认6位
+         *
+         * @param digits 验证码位数
+         * @return 构建器
+         */
+        public Builder digits(int digits) {
+            OtpCode.checkDigits(digits);
+            this.digits = digits;
+            return this;
+        }
+
+        /**
+         * 设置时间步长, 默认30秒
+         *
+         * @param period 时间步长(秒)
+         * @return 构建器
+         */
+        public Builder period(int period) {
+            if (period <= 0) throw new IllegalArgumentException("period must be positive");
+            this.period = period;
+            return this;
+        }
+
+        /**
+         * 设置容许的时钟偏移, 默认只检查当前窗口
+         *
+         * @param pastWindows   向前检查的窗口数量
+         * @param futureWindows 向后检查的窗口数量
+         * @return 构建器
+         */
+        public Builder drift(int pastWindows, int futureWindows) {
+            checkDriftWindows(pastWindows, futureWindows);
+            this.pastWindows = pastWindows;
+            this.futureWindows = futureWindows;
+            return this;
+        }
+
+        /**
+         * 设置时钟偏移记录, 容许时钟偏移时先检查密钥上次匹配的窗口偏移
+         *
+         * @param driftStore 时钟偏移记录
+         * @return 构建器
+         */
+        public Builder driftStore(DriftStore driftStore) {
+            this.driftStore = driftStore;
+            return this;
+        }
+
+        /**
+         * 设置重复验证记录, 默认每个验证器使用独立的内存记录
+         *
+         * @param replayStore 重复验证记录
+         * @return 构建器
+         */
+        public Builder replayStore(ReplayStore replayStore) {
+            this.replayStore = replayStore;
+            return this;
+        }
+
+        /**
+         * 设置时间来源, 默认系统时间
+         *
+         * @param timeSource 时间来源
+         * @return 构建器
+         */
+        public Builder timeSource(@NotNull TimeSource timeSource) {
+            if (timeSource == null) throw new IllegalArgumentException("time source can't be null");
+            this.timeSource = timeSource;
+            return this;
+        }
+
+        /**
+         * 使用给定的Clock作为时间来源
+         *
+         * @param clock 时钟
+         * @return 构建器
+         */
+        public Builder clock(@NotNull Clock clock) {
+            return timeSource(TimeSources.clock(clock));
+        }
+
+        /**
+         * 设置验证计数, 默认每个验证器使用独立的计数
+         *
+         * @param metrics 验证计数, 为null时不计数
+         * @return 构建器
+         */
+        public Builder metrics(ValidatorMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * 设置验证码预计算服务, 预计算服务应使用与验证器相同的时间来源
+         *
+         * @param codePrecomputer 预计算服务
+         * @return 构建器
+         */
+        public Builder codePrecomputer(CodePrecomputer codePrecomputer) {
+            this.codePrecomputer = codePrecomputer;
+            return this;
+        }
+
+        /**
+         * 设置密钥文本缓存数量, 默认不启用
+         *
+         * @param size 缓存数量
+         * @return 构建器
+         */
+        public Builder secretCacheSize(int size) {
+            this.secretCacheSize = size;
+            return this;
+        }
+
+        /**
+         * 设置验证码记录数量, 默认不启用
+         *
+         * @param size 记录数量
+         * @return 构建器
+         */
+        public Builder codeMemoSize(int size) {
+            this.codeMemoSize = size;
+            return this;
+        }
+
+        /**
+         * 创建验证器
+         *
+         * @return 验证器
+         */
+        public OtpValidator build() {
+            return new OtpValidator(this);
+        }
+    }
+}
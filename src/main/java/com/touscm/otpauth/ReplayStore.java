@@ -0,0 +1,20 @@
+package com.touscm.otpauth;
+
+/**
+ * 已验证时间窗口的记录, 用于拒绝重复使用的验证码, 实现须线程安全
+ */
+public interface ReplayStore {
+    /**
+     * 记录密钥验证成功的时间窗口, 同一密钥已记录相同或更晚的时间窗口时拒绝; 检查与记录须是原子操作
+     * <p>
+     * 记录在过期时间之前不得清理: 过期时间按最大容许偏移(MAX_DRIFT_WINDOWS)计算, 与单次验证容许的偏移无关,
+     * 以免不容许偏移的验证清理掉容许偏移的验证仍会接受的记录
+     *
+     * @param secret     密钥
+     * @param timeWindow 时间标识
+     * @param expireAt   记录的过期时间戳(毫秒), 此后任何验证都不会再接受该时间窗口
+     * @param timestamp  验证时间戳(毫秒), 过期时间不晚于此的记录可以清理
+     * @return 记录结果, 重复时为false
+     */
+    boolean tryAccept(String secret, long timeWindow, long expireAt, long timestamp);
+}
@@ -0,0 +1,198 @@
+package com.touscm.otpauth;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 一组密钥按时间窗口建立的验证码索引, 用于由验证码反查密钥
+ * <p>
+ * 首次查询某一时间窗口时批量计算组内全部密钥的验证码并建立开放寻址的整数哈希表, 之后的查询不再计算HMAC;
+ * 按时间标识奇偶保留两个窗口的索引, 同一窗口的索引只由一个线程建立, 其他线程等待建立完成. 查询只返回匹配的密钥, 不做重复验证检查
+ */
+public final class SecretGroupIndex {
+    private final OtpSecret[] secrets;
+    private final HmacKey[] keys;
+    private final long stepMillis;
+    private final int digits;
+    private final TimeSource timeSource;
+    private final AtomicReferenceArray<WindowSlot> indexes = new AtomicReferenceArray<>(2);
+
+    /**
+     * @param secrets 组内密钥, 时间步长与验证码位数必须一致
+     */
+    public SecretGroupIndex(@NotNull Collection<OtpSecret> secrets) {
+        this(secrets, TimeSources.system());
+    }
+
+    /**
+     * @param secrets    组内密钥, 时间步长与验证码位数必须一致
+     * @param timeSource 查找当前时间的验证码时使用的时间来源
+     */
+    public SecretGroupIndex(@NotNull Collection<OtpSecret> secrets, @NotNull TimeSource timeSource) {
+        if (timeSource == null) throw new IllegalArgumentException("time source can't be null");
+        if (secrets == null || secrets.isEmpty()) throw new IllegalArgumentException("secrets can't be empty");
+
+        this.secrets = secrets.toArray(new OtpSecret[0]);
+        this.keys = new HmacKey[this.secrets.length];
+        int period = 0;
+        int digits = 0;
+        for (int i = 0; i < this.secrets.length; i++) {
+            OtpSecret secret = this.secrets[i];
+            if (secret == null) throw new IllegalArgumentException("secret can't be null");
+            if (period != 0 && period != secret.getPeriod()) throw new IllegalArgumentException("secrets must share the same period");
+            if (digits != 0 && digits != secret.getDigits()) throw new IllegalArgumentException("secrets must share the same digits");
+            period = secret.getPeriod();
+            digits = secret.getDigits();
+            keys[i] = secret.getHmacKey();
+        }
+        this.stepMillis = period * 1000L;
+        this.digits = digits;
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * 查找当前时间生成给定验证码的密钥
+     *
+     * @param code 验证码
+     * @return 匹配的密钥, 无匹配时为空列表
+     */
+    public List<OtpSecret> find(long code) {
+        return find(code, timeSource.currentTimeMillis());
+    }
+
+    /**
+     * 查找给定时间生成给定验证码的密钥
+     *
+     * @param code      验证码
+     * @param timestamp 时间戳
+     * @return 匹配的密钥, 无匹配时为空列表
+     */
+    public List<OtpSecret> find(long code, long timestamp) {
+        if (code <= 0 || code >= OtpCode.modulus(digits) || code > Integer.MAX_VALUE) return Collections.emptyList();
+
+        return index(timestamp / stepMillis).find((int) code);
+    }
+
+    /**
+     * 取得组内密钥数量
+     *
+     * @return 数量
+     */
+    public int size() {
+        return secrets.length;
+    }
+
+    public int getDigits() {
+        return digits;
+    }
+
+    /**
+     * 取得时间窗口的索引, 由替换槽位成功的线程建立, 其他线程等待; 早于槽位中窗口的查询单独建立而不替换槽位
+     */
+    private WindowIndex index(long timeWindow) {
+        int slot = (int) timeWindow & 1;
+        for (; ; ) {
+            WindowSlot current = indexes.get(slot);
+            if (current != null && current.timeWindow == timeWindow) {
+                return current.index.join();
+            }
+            if (current != null && timeWindow < current.timeWindow) {
+                return build(timeWindow);
+            }
+
+            WindowSlot created = new WindowSlot(timeWindow);
+            if (indexes.compareAndSet(slot, current, created)) {
+                try {
+                    WindowIndex index = build(timeWindow);
+                    created.index.complete(index);
+                    return index;
+                } catch (RuntimeException e) {
+                    created.index.completeExceptionally(e);
+                    indexes.compareAndSet(slot, created, null);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private WindowIndex build(long timeWindow) {
+        int[] codes = new int[keys.length];
+        BatchHotp.truncate(keys, timeWindow, codes);
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] >= 0) {
+                codes[i] = OtpCode.truncate(codes[i], digits);
+            }
+        }
+        return new WindowIndex(codes);
+    }
+
+    /**
+     * 槽位中的时间窗口及其索引, 索引建立完成前其他线程在此等待
+     */
+    private static final class WindowSlot {
+        private final long timeWindow;
+        private final CompletableFuture<WindowIndex> index = new CompletableFuture<>();
+
+        WindowSlot(long timeWindow) {
+            this.timeWindow = timeWindow;
+        }
+    }
+
+    /**
+     * 单个时间窗口的索引, 建立后不可变
+     */
+    private final class WindowIndex {
+        // 槽位中的验证码与密钥下标, 下标为-1表示空槽
+        private final int[] slotCodes;
+        private final int[] slotSecrets;
+        private final int mask;
+
+        WindowIndex(int[] codes) {
+            int size = 2;
+            while (size < codes.length * 2) {
+                size <<= 1;
+            }
+
+            this.slotCodes = new int[size];
+            this.slotSecrets = new int[size];
+            this.mask = size - 1;
+
+            Arrays.fill(slotSecrets, -1);
+            for (int i = 0; i < codes.length; i++) {
+                if (codes[i] < 0) {
+                    continue;
+                }
+                int slot = hash(codes[i]) & mask;
+                while (slotSecrets[slot] >= 0) {
+                    slot = slot + 1 & mask;
+                }
+                slotCodes[slot] = codes[i];
+                slotSecrets[slot] = i;
+            }
+        }
+
+        List<OtpSecret> find(int code) {
+            List<OtpSecret> matches = null;
+            for (int slot = hash(code) & mask; slotSecrets[slot] >= 0; slot = slot + 1 & mask) {
+                if (slotCodes[slot] == code) {
+                    if (matches == null) {
+                        matches = new ArrayList<>(1);
+                    }
+                    matches.add(secrets[slotSecrets[slot]]);
+                }
+            }
+            return matches == null ? Collections.emptyList() : matches;
+        }
+
+        private int hash(int code) {
+            int h = code * 0x9E3779B9;
+            return h ^ h >>> 16;
+        }
+    }
+}
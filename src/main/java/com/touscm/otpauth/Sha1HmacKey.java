@@ -0,0 +1,153 @@
+package com.touscm.otpauth;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 纯Java实现的HMAC-SHA1预处理密钥, 专用于8字节计数器
+ * <p>
+ * 密钥的ipad/opad块只在创建时压缩一次, 每次计算只需两次压缩(内层计数器块, 外层摘要块), 工作状态复用线程独占的数组, 不分配堆内存
+ */
+final class Sha1HmacKey extends HmacKey {
+    private static final int BLOCK_SIZE = 64;
+    private static final int DIGEST_SIZE = 20;
+
+    // 内层消息: ipad块 + 8字节计数器, 外层消息: opad块 + 20字节摘要, 单位为bit
+    static final int INNER_LENGTH = (BLOCK_SIZE + 8) * 8;
+    static final int OUTER_LENGTH = (BLOCK_SIZE + DIGEST_SIZE) * 8;
+
+    private static final int SCRATCH_STATE = 80;
+    private static final ThreadLocal<int[]> scratch = ThreadLocal.withInitial(() -> new int[SCRATCH_STATE + 5]);
+
+    // ipad/opad块压缩后的中间状态
+    final int i0, i1, i2, i3, i4;
+    final int o0, o1, o2, o3, o4;
+
+    /**
+     * @param keyData 密钥
+     */
+    Sha1HmacKey(byte[] keyData) {
+        super(HashAlgorithm.SHA1);
+        byte[] key = keyData.length > BLOCK_SIZE ? sha1(keyData) : keyData;
+        int[] w = new int[SCRATCH_STATE + 5];
+
+        padKey(key, 0x36, w);
+        compress(w, 0x67452301, 0xEFCDAB89, 0x98BADCFE, 0x10325476, 0xC3D2E1F0);
+        i0 = w[SCRATCH_STATE];
+        i1 = w[SCRATCH_STATE + 1];
+        i2 = w[SCRATCH_STATE + 2];
+        i3 = w[SCRATCH_STATE + 3];
+        i4 = w[SCRATCH_STATE + 4];
+
+        padKey(key, 0x5c, w);
+        compress(w, 0x67452301, 0xEFCDAB89, 0x98BADCFE, 0x10325476, 0xC3D2E1F0);
+        o0 = w[SCRATCH_STATE];
+        o1 = w[SCRATCH_STATE + 1];
+        o2 = w[SCRATCH_STATE + 2];
+        o3 = w[SCRATCH_STATE + 3];
+        o4 = w[SCRATCH_STATE + 4];
+    }
+
+    @Override
+    int truncate(long counter) {
+        int[] w = scratch.get();
+
+        // 内层: 计数器 + 填充
+        w[0] = (int) (counter >>> 32);
+        w[1] = (int) counter;
+        w[2] = 0x80000000;
+        for (int t = 3; t < 15; t++) {
+            w[t] = 0;
+        }
+        w[15] = INNER_LENGTH;
+        compress(w, i0, i1, i2, i3, i4);
+
+        // 外层: 内层摘要 + 填充
+        for (int t = 0; t < 5; t++) {
+            w[t] = w[SCRATCH_STATE + t];
+        }
+        w[5] = 0x80000000;
+        for (int t = 6; t < 15; t++) {
+            w[t] = 0;
+        }
+        w[15] = OUTER_LENGTH;
+        compress(w, o0, o1, o2, o3, o4);
+
+        // https://www.rfc-editor.org/rfc/rfc4226#section-5.4
+        int offset = w[SCRATCH_STATE + 4] & 0xF;
+        int index = SCRATCH_STATE + (offset >>> 2);
+        int shift = (offset & 3) << 3;
+        int binCode = shift == 0 ? w[index] : w[index] << shift | w[index + 1] >>> (32 - shift);
+        return binCode & 0x7fffffff;
+    }
+
+    /**
+     * 密钥补齐到块长度并与填充值异或, 写入消息字
+     */
+    private static void padKey(byte[] key, int pad, int[] w) {
+        int padWord = pad * 0x01010101;
+        for (int t = 0; t < 16; t++) {
+            w[t] = padWord;
+        }
+        for (int i = 0; i < key.length; i++) {
+            w[i >>> 2] ^= (key[i] & 0xff) << ((3 - (i & 3)) << 3);
+        }
+    }
+
+    /**
+     * SHA-1压缩函数, w[0..15]为消息块, 结果写入w[80..84]
+     */
+    static void compress(int[] w, int h0, int h1, int h2, int h3, int h4) {
+        for (int t = 16; t < 80; t++) {
+            w[t] = Integer.rotateLeft(w[t - 3] ^ w[t - 8] ^ w[t - 14] ^ w[t - 16], 1);
+        }
+
+        int a = h0, b = h1, c = h2, d = h3, e = h4, temp;
+        for (int t = 0; t < 20; t++) {
+            temp = Integer.rotateLeft(a, 5) + ((b & c) | (~b & d)) + e + w[t] + 0x5A827999;
+            e = d;
+            d = c;
+            c = Integer.rotateLeft(b, 30);
+            b = a;
+            a = temp;
+        }
+        for (int t = 20; t < 40; t++) {
+            temp = Integer.rotateLeft(a, 5) + (b ^ c ^ d) + e + w[t] + 0x6ED9EBA1;
+            e = d;
+            d = c;
+            c = Integer.rotateLeft(b, 30);
+            b = a;
+            a = temp;
+        }
+        for (int t = 40; t < 60; t++) {
+            temp = Integer.rotateLeft(a, 5) + ((b & c) | (b & d) | (c & d)) + e + w[t] + 0x8F1BBCDC;
+            e = d;
+            d = c;
+            c = Integer.rotateLeft(b, 30);
+            b = a;
+            a = temp;
+        }
+        for (int t = 60; t < 80; t++) {
+            temp = Integer.rotateLeft(a, 5) + (b ^ c ^ d) + e + w[t] + 0xCA62C1D6;
+            e = d;
+            d = c;
+            c = Integer.rotateLeft(b, 30);
+            b = a;
+            a = temp;
+        }
+
+        w[SCRATCH_STATE] = h0 + a;
+        w[SCRATCH_STATE + 1] = h1 + b;
+        w[SCRATCH_STATE + 2] = h2 + c;
+        w[SCRATCH_STATE + 3] = h3 + d;
+        w[SCRATCH_STATE + 4] = h4 + e;
+    }
+
+    private static byte[] sha1(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 digest algorithm not found", e);
+        }
+    }
+}
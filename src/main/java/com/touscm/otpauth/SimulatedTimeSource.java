@@ -0,0 +1,38 @@
+package com.touscm.otpauth;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 手动设置与推进的模拟时间来源, 用于测试与压测
+ */
+public final class SimulatedTimeSource implements TimeSource {
+    private final AtomicLong currentTimeMillis;
+
+    public SimulatedTimeSource(long startMillis) {
+        this.currentTimeMillis = new AtomicLong(startMillis);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return currentTimeMillis.get();
+    }
+
+    /**
+     * 推进时间
+     *
+     * @param millis 推进的毫秒数
+     * @return 推进后的时间戳
+     */
+    public long advance(long millis) {
+        return currentTimeMillis.addAndGet(millis);
+    }
+
+    /**
+     * 设置时间
+     *
+     * @param millis 时间戳(毫秒)
+     */
+    public void set(long millis) {
+        currentTimeMillis.set(millis);
+    }
+}
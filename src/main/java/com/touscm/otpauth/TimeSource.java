@@ -0,0 +1,14 @@
+package com.touscm.otpauth;
+
+/**
+ * 验证与生成验证码时使用的时间来源, 实现须线程安全
+ */
+@FunctionalInterface
+public interface TimeSource {
+    /**
+     * 取得当前时间
+     *
+     * @return 时间戳(毫秒)
+     */
+    long currentTimeMillis();
+}
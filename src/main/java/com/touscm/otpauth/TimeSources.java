@@ -0,0 +1,54 @@
+package com.touscm.otpauth;
+
+import javax.validation.constraints.NotNull;
+import java.time.Clock;
+
+/**
+ * 常用的时间来源
+ */
+public final class TimeSources {
+    private static final TimeSource SYSTEM = System::currentTimeMillis;
+
+    private TimeSources() {
+    }
+
+    /**
+     * 系统时间, 默认的时间来源
+     *
+     * @return 时间来源
+     */
+    public static TimeSource system() {
+        return SYSTEM;
+    }
+
+    /**
+     * 使用给定的Clock
+     *
+     * @param clock 时钟
+     * @return 时间来源
+     */
+    public static TimeSource clock(@NotNull Clock clock) {
+        if (clock == null) throw new IllegalArgumentException("clock can't be null");
+        return clock::millis;
+    }
+
+    /**
+     * 后台线程定时更新的粗粒度时间, 读取时只访问一个volatile字段
+     *
+     * @param tickMillis 更新间隔(毫秒)
+     * @return 时间来源, 不再使用时应关闭
+     */
+    public static CachedTimeSource cached(long tickMillis) {
+        return CachedTimeSource.start(SYSTEM, tickMillis);
+    }
+
+    /**
+     * 手动推进的模拟时间, 用于测试与压测
+     *
+     * @param startMillis 起始时间戳(毫秒)
+     * @return 时间来源
+     */
+    public static SimulatedTimeSource simulated(long startMillis) {
+        return new SimulatedTimeSource(startMillis);
+    }
+}
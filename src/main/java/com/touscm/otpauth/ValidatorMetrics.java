@@ -0,0 +1,56 @@
+package com.touscm.otpauth;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 验证计数, 可在多个验证器之间共享
+ */
+public final class ValidatorMetrics {
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+    private final LongAdder computationCount = new LongAdder();
+
+    public long getSuccessCount() {
+        return successCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount.sum();
+    }
+
+    /**
+     * 取得计算HMAC的次数, 不含预计算服务与验证码记录命中的验证
+     *
+     * @return 次数
+     */
+    public long getComputationCount() {
+        return computationCount.sum();
+    }
+
+    void record(ValidateResult result) {
+        switch (result) {
+            case Success:
+                successCount.increment();
+                break;
+            case Duplicate:
+                duplicateCount.increment();
+                break;
+            default:
+                failedCount.increment();
+        }
+    }
+
+    void addComputations(int computations) {
+        computationCount.add(computations);
+    }
+
+    @Override
+    public String toString() {
+        return "ValidatorMetrics{success=" + getSuccessCount() + ", failed=" + getFailedCount() + ", duplicate=" + getDuplicateCount() + ", computations=" + getComputationCount() + "}";
+    }
+}
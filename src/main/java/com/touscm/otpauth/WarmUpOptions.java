@@ -0,0 +1,84 @@
+package com.touscm.otpauth;
+
+import javax.validation.constraints.NotNull;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 预热选项
+ */
+public class WarmUpOptions {
+    public static final int DEFAULT_ITERATIONS = 10000;
+
+    private int iterations = DEFAULT_ITERATIONS;
+    private Set<HashAlgorithm> algorithms = EnumSet.of(OtpAuthUtils.DEFAULT_HASH_ALGORITHM);
+    private boolean createSecret = true;
+    private boolean qrCode = false;
+
+    /**
+     * 设置解码与验证码计算的执行次数, 默认10000次, 足以触发JIT编译
+     *
+     * @param iterations 执行次数
+     * @return 预热选项
+     */
+    public WarmUpOptions iterations(int iterations) {
+        if (iterations <= 0) throw new IllegalArgumentException("iterations must be positive");
+        this.iterations = iterations;
+        return this;
+    }
+
+    /**
+     * 设置预热的HMAC算法, 默认只预热HmacSHA1
+     *
+     * @param algorithms HMAC算法
+     * @return 预热选项
+     */
+    public WarmUpOptions algorithms(@NotNull HashAlgorithm... algorithms) {
+        if (algorithms == null || algorithms.length == 0) throw new IllegalArgumentException("algorithms can't be empty");
+
+        Set<HashAlgorithm> set = EnumSet.noneOf(HashAlgorithm.class);
+        for (HashAlgorithm algorithm : algorithms) {
+            set.add(algorithm);
+        }
+        this.algorithms = set;
+        return this;
+    }
+
+    /**
+     * 设置是否预热密钥创建(随机数生成器初始化与播种), 默认启用
+     *
+     * @param createSecret 是否预热
+     * @return 预热选项
+     */
+    public WarmUpOptions createSecret(boolean createSecret) {
+        this.createSecret = createSecret;
+        return this;
+    }
+
+    /**
+     * 设置是否预热二维码生成(AWT/ImageIO初始化), 默认不启用
+     *
+     * @param qrCode 是否预热
+     * @return 预热选项
+     */
+    public WarmUpOptions qrCode(boolean qrCode) {
+        this.qrCode = qrCode;
+        return this;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public Set<HashAlgorithm> getAlgorithms() {
+        return algorithms;
+    }
+
+    public boolean isCreateSecret() {
+        return createSecret;
+    }
+
+    public boolean isQrCode() {
+        return qrCode;
+    }
+}
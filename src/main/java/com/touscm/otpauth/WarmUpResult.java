@@ -0,0 +1,74 @@
+package com.touscm.otpauth;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 预热结果, 各阶段耗时单位为纳秒, 未执行的阶段为-1
+ */
+public class WarmUpResult {
+    private final long decodeNanos;
+    private final Map<HashAlgorithm, Long> calculateNanos;
+    private final long createSecretNanos;
+    private final long qrCodeNanos;
+    private final long totalNanos;
+
+    WarmUpResult(long decodeNanos, Map<HashAlgorithm, Long> calculateNanos, long createSecretNanos, long qrCodeNanos, long totalNanos) {
+        this.decodeNanos = decodeNanos;
+        this.calculateNanos = Collections.unmodifiableMap(new EnumMap<>(calculateNanos));
+        this.createSecretNanos = createSecretNanos;
+        this.qrCodeNanos = qrCodeNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * 取得Base32解码耗时
+     *
+     * @return 耗时
+     */
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    /**
+     * 取得各算法验证码计算耗时
+     *
+     * @return 耗时
+     */
+    public Map<HashAlgorithm, Long> getCalculateNanos() {
+        return calculateNanos;
+    }
+
+    /**
+     * 取得密钥创建耗时
+     *
+     * @return 耗时
+     */
+    public long getCreateSecretNanos() {
+        return createSecretNanos;
+    }
+
+    /**
+     * 取得二维码生成耗时
+     *
+     * @return 耗时
+     */
+    public long getQrCodeNanos() {
+        return qrCodeNanos;
+    }
+
+    /**
+     * 取得总耗时
+     *
+     * @return 耗时
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpResult{decodeNanos=" + decodeNanos + ", calculateNanos=" + calculateNanos + ", createSecretNanos=" + createSecretNanos + ", qrCodeNanos=" + qrCodeNanos + ", totalNanos=" + totalNanos + "}";
+    }
+}
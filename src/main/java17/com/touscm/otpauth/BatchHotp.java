@@ -0,0 +1,45 @@
+package com.touscm.otpauth;
+
+/**
+ * 批量计算多个密钥在同一计数器下的HOTP截断值
+ * <p>
+ * Java 17版本: 运行时加载了jdk.incubator.vector模块时, HmacSHA1密钥按向量通道并行计算, 否则逐个密钥计算
+ */
+final class BatchHotp {
+    private static final boolean VECTOR_ENABLED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent() && VectorSha1.isSupported();
+
+    private BatchHotp() {
+    }
+
+    /**
+     * @param keys     预处理密钥
+     * @param counter  计数器
+     * @param binCodes 截断值输出, 失败时为-1
+     */
+    static void truncate(HmacKey[] keys, long counter, int[] binCodes) {
+        if (!VECTOR_ENABLED || keys.length < VectorSha1.lanes()) {
+            for (int i = 0; i < keys.length; i++) {
+                binCodes[i] = keys[i].truncate(counter);
+            }
+            return;
+        }
+
+        Sha1HmacKey[] sha1Keys = new Sha1HmacKey[keys.length];
+        int[] positions = new int[keys.length];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] instanceof Sha1HmacKey) {
+                sha1Keys[count] = (Sha1HmacKey) keys[i];
+                positions[count++] = i;
+            } else {
+                binCodes[i] = keys[i].truncate(counter);
+            }
+        }
+
+        int vectorCount = count - count % VectorSha1.lanes();
+        VectorSha1.truncate(sha1Keys, positions, vectorCount, counter, binCodes);
+        for (int i = vectorCount; i < count; i++) {
+            binCodes[positions[i]] = sha1Keys[i].truncate(counter);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.touscm.otpauth;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于Vector API的多通道HMAC-SHA1, 每个通道对应一个密钥
+ * <p>
+ * 同一批次的计数器相同, 内层消息块及其扩展只计算一次并广播到所有通道; 外层消息块来自各通道的内层摘要, 按通道并行扩展
+ */
+final class VectorSha1 {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private static final int K0 = 0x5A827999;
+    private static final int K1 = 0x6ED9EBA1;
+    private static final int K2 = 0x8F1BBCDC;
+    private static final int K3 = 0xCA62C1D6;
+
+    private VectorSha1() {
+    }
+
+    static boolean isSupported() {
+        return LANES >= 4;
+    }
+
+    static int lanes() {
+        return LANES;
+    }
+
+    /**
+     * @param keys      HmacSHA1预处理密钥
+     * @param positions 各密钥在输出中的位置
+     * @param count     密钥数量, 须为通道数的整数倍
+     * @param counter   计数器
+     * @param binCodes  截断值输出
+     */
+    static void truncate(Sha1HmacKey[] keys, int[] positions, int count, long counter, int[] binCodes) {
+        // 内层消息块只与计数器有关, 所有通道共用, 预先加上轮常量
+        int[] innerW = new int[80];
+        innerW[0] = (int) (counter >>> 32);
+        innerW[1] = (int) counter;
+        innerW[2] = 0x80000000;
+        innerW[15] = Sha1HmacKey.INNER_LENGTH;
+        for (int t = 16; t < 80; t++) {
+            innerW[t] = Integer.rotateLeft(innerW[t - 3] ^ innerW[t - 8] ^ innerW[t - 14] ^ innerW[t - 16], 1);
+        }
+        for (int t = 0; t < 80; t++) {
+            innerW[t] += t < 20 ? K0 : t < 40 ? K1 : t < 60 ? K2 : K3;
+        }
+
+        int[] state = new int[10 * LANES];
+        int[] outerW = new int[80 * LANES];
+        int[] digest = new int[5 * LANES];
+
+        for (int base = 0; base < count; base += LANES) {
+            for (int lane = 0; lane < LANES; lane++) {
+                Sha1HmacKey key = keys[base + lane];
+                state[lane] = key.i0;
+                state[LANES + lane] = key.i1;
+                state[2 * LANES + lane] = key.i2;
+                state[3 * LANES + lane] = key.i3;
+                state[4 * LANES + lane] = key.i4;
+                state[5 * LANES + lane] = key.o0;
+                state[6 * LANES + lane] = key.o1;
+                state[7 * LANES + lane] = key.o2;
+                state[8 * LANES + lane] = key.o3;
+                state[9 * LANES + lane] = key.o4;
+            }
+
+            compressInner(innerW, state, outerW);
+            compressOuter(outerW, state, digest);
+
+            for (int lane = 0; lane < LANES; lane++) {
+                // https://www.rfc-editor.org/rfc/rfc4226#section-5.4
+                int offset = digest[4 * LANES + lane] & 0xF;
+                int index = (offset >>> 2) * LANES + lane;
+                int shift = (offset & 3) << 3;
+                int binCode = shift == 0 ? digest[index] : digest[index] << shift | digest[index + LANES] >>> (32 - shift);
+                binCodes[positions[base + lane]] = binCode & 0x7fffffff;
+            }
+        }
+    }
+
+    /**
+     * 内层压缩, 消息字为标量广播, 结果作为外层消息块的前5个字写入outerW
+     */
+    private static void compressInner(int[] innerW, int[] state, int[] outerW) {
+        IntVector h0 = IntVector.fromArray(SPECIES, state, 0);
+        IntVector h1 = IntVector.fromArray(SPECIES, state, LANES);
+        IntVector h2 = IntVector.fromArray(SPECIES, state, 2 * LANES);
+        IntVector h3 = IntVector.fromArray(SPECIES, state, 3 * LANES);
+        IntVector h4 = IntVector.fromArray(SPECIES, state, 4 * LANES);
+
+        IntVector a = h0, b = h1, c = h2, d = h3, e = h4, temp;
+        for (int t = 0; t < 80; t++) {
+            temp = a.lanewise(VectorOperators.ROL, 5).add(f(t, b, c, d)).add(e).add(innerW[t]);
+            e = d;
+            d = c;
+            c = b.lanewise(VectorOperators.ROL, 30);
+            b = a;
+            a = temp;
+        }
+
+        h0.add(a).intoArray(outerW, 0);
+        h1.add(b).intoArray(outerW, LANES);
+        h2.add(c).intoArray(outerW, 2 * LANES);
+        h3.add(d).intoArray(outerW, 3 * LANES);
+        h4.add(e).intoArray(outerW, 4 * LANES);
+    }
+
+    /**
+     * 外层压缩, 消息块为内层摘要 + 填充, 按通道扩展
+     */
+    private static void compressOuter(int[] w, int[] state, int[] digest) {
+        IntVector.broadcast(SPECIES, 0x80000000).intoArray(w, 5 * LANES);
+        IntVector zero = IntVector.zero(SPECIES);
+        for (int t = 6; t < 15; t++) {
+            zero.intoArray(w, t * LANES);
+        }
+        IntVector.broadcast(SPECIES, Sha1HmacKey.OUTER_LENGTH).intoArray(w, 15 * LANES);
+        for (int t = 16; t < 80; t++) {
+            IntVector.fromArray(SPECIES, w, (t - 3) * LANES)
+                    .lanewise(VectorOperators.XOR, IntVector.fromArray(SPECIES, w, (t - 8) * LANES))
+                    .lanewise(VectorOperators.XOR, IntVector.fromArray(SPECIES, w, (t - 14) * LANES))
+                    .lanewise(VectorOperators.XOR, IntVector.fromArray(SPECIES, w, (t - 16) * LANES))
+                    .lanewise(VectorOperators.ROL, 1)
+                    .intoArray(w, t * LANES);
+        }
+
+        IntVector h0 = IntVector.fromArray(SPECIES, state, 5 * LANES);
+        IntVector h1 = IntVector.fromArray(SPECIES, state, 6 * LANES);
+        IntVector h2 = IntVector.fromArray(SPECIES, state, 7 * LANES);
+        IntVector h3 = IntVector.fromArray(SPECIES, state, 8 * LANES);
+        IntVector h4 = IntVector.fromArray(SPECIES, state, 9 * LANES);
+
+        IntVector a = h0, b = h1, c = h2, d = h3, e = h4, temp;
+        for (int t = 0; t < 80; t++) {
+            int k = t < 20 ? K0 : t < 40 ? K1 : t < 60 ? K2 : K3;
+            temp = a.lanewise(VectorOperators.ROL, 5).add(f(t, b, c, d)).add(e).add(IntVector.fromArray(SPECIES, w, t * LANES)).add(k);
+            e = d;
+            d = c;
+            c = b.lanewise(VectorOperators.ROL, 30);
+            b = a;
+            a = temp;
+        }
+
+        h0.add(a).intoArray(digest, 0);
+        h1.add(b).intoArray(digest, LANES);
+        h2.add(c).intoArray(digest, 2 * LANES);
+        h3.add(d).intoArray(digest, 3 * LANES);
+        h4.add(e).intoArray(digest, 4 * LANES);
+    }
+
+    private static IntVector f(int t, IntVector b, IntVector c, IntVector d) {
+        if (t < 20) {
+            // (b & c) | (~b & d)
+            return d.lanewise(VectorOperators.XOR, b.and(c.lanewise(VectorOperators.XOR, d)));
+        }
+        if (t < 40 || t >= 60) {
+            return b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.XOR, d);
+        }
+        // (b & c) | (b & d) | (c & d)
+        return b.and(c).or(d.and(b.or(c)));
+    }
+}
@@ -0,0 +1,142 @@
+package com.touscm.otpauth;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Base32编解码, 包含<a href="https://www.rfc-editor.org/rfc/rfc4648#section-10">RFC4648, 10</a>的测试向量与认证器应用常见的格式
+ */
+class Base32CodecTest {
+    private static final String[] PLAIN = {"", "f", "fo", "foo", "foob", "fooba", "foobar"};
+    private static final String[] ENCODED = {"", "MY======", "MZXQ====", "MZXW6===", "MZXW6YQ=", "MZXW6YTB", "MZXW6YTBOI======"};
+    private static final byte[] FOOBAR = "foobar".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void rfc4648Vectors() {
+        for (int i = 0; i < PLAIN.length; i++) {
+            byte[] plain = PLAIN[i].getBytes(StandardCharsets.US_ASCII);
+            assertEquals(ENCODED[i], Base32Codec.encodeToString(plain));
+            assertArrayEquals(plain, Base32Codec.decode(ENCODED[i]));
+        }
+    }
+
+    @Test
+    void tolerantFormats() {
+        assertArrayEquals(FOOBAR, Base32Codec.decode("mzxw6ytboi"));
+        assertArrayEquals(FOOBAR, Base32Codec.decode("MzXw 6yTb Oi"));
+        assertArrayEquals(FOOBAR, Base32Codec.decode("MZXW-6YTB-OI"));
+        assertArrayEquals(FOOBAR, Base32Codec.decode(" MZXW6\tYTBOI\r\n"));
+        assertArrayEquals(FOOBAR, Base32Codec.decode("MZXW6YTBOI======"));
+        // 填充字符之后的内容不再解码
+        assertArrayEquals("foo".getBytes(StandardCharsets.US_ASCII), Base32Codec.decode("MZXW6===MZXW6"));
+    }
+
+    @Test
+    void invalidCharacters() {
+        for (String src : new String[]{"MZXW1", "MZXW8", "MZXW0", "MZXW6!", "MZ_XW", "MZXW6é", "MZXW6中"}) {
+            assertEquals(-1, Base32Codec.decode(src, new byte[16], 0), src);
+            assertNull(Base32Codec.decode(src), src);
+
+            ByteBuffer heap = ByteBuffer.allocate(16);
+            heap.position(2);
+            assertEquals(-1, Base32Codec.decode(src, heap), src);
+            assertEquals(2, heap.position());
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(16);
+            direct.position(2);
+            assertEquals(-1, Base32Codec.decode(src, direct), src);
+            assertEquals(2, direct.position());
+        }
+    }
+
+    @Test
+    void destinationTooSmall() {
+        assertEquals(-1, Base32Codec.decode("MZXW6YTBOI", new byte[5], 0));
+        assertEquals(-1, Base32Codec.decode("MZXW6YTBOI", new byte[8], 3));
+        assertEquals(6, Base32Codec.decode("MZXW6YTBOI", new byte[8], 2));
+
+        ByteBuffer heap = ByteBuffer.allocate(8);
+        heap.position(3);
+        assertEquals(-1, Base32Codec.decode("MZXW6YTBOI", heap));
+        assertEquals(3, heap.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(8);
+        direct.position(3);
+        assertEquals(-1, Base32Codec.decode("MZXW6YTBOI", direct));
+        assertEquals(3, direct.position());
+    }
+
+    @Test
+    void heapBufferPosition() {
+        ByteBuffer heap = ByteBuffer.allocate(16);
+        heap.position(3);
+        assertEquals(6, Base32Codec.decode("MZXW6YTBOI", heap));
+        assertEquals(9, heap.position());
+        assertArrayEquals(FOOBAR, Arrays.copyOfRange(heap.array(), 3, 9));
+    }
+
+    @Test
+    void slicedHeapBufferRespectsArrayOffsetAndLimit() {
+        byte[] backing = new byte[20];
+        ByteBuffer slice = ByteBuffer.wrap(backing, 4, 10).slice();
+        slice.position(2);
+        assertEquals(6, Base32Codec.decode("MZXW6YTBOI", slice));
+        assertEquals(8, slice.position());
+        assertArrayEquals(FOOBAR, Arrays.copyOfRange(backing, 6, 12));
+
+        // 剩余4字节不足, 不写入限制之外
+        Arrays.fill(backing, (byte) 0);
+        slice.position(6);
+        assertEquals(-1, Base32Codec.decode("MZXW6YTBOI", slice));
+        assertEquals(6, slice.position());
+        for (int i = 14; i < backing.length; i++) {
+            assertEquals(0, backing[i]);
+        }
+    }
+
+    @Test
+    void directBufferPosition() {
+        ByteBuffer direct = ByteBuffer.allocateDirect(16);
+        direct.position(3);
+        assertEquals(6, Base32Codec.decode("MZXW6YTBOI", direct));
+        assertEquals(9, direct.position());
+
+        byte[] decoded = new byte[6];
+        direct.position(3);
+        direct.get(decoded);
+        assertArrayEquals(FOOBAR, decoded);
+    }
+
+    @Test
+    void roundTrip() {
+        Random random = new Random(4648);
+        for (int length = 0; length <= 25; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+
+            String encoded = Base32Codec.encodeToString(data);
+            assertEquals(Base32Codec.encodedLength(length), encoded.length());
+            assertArrayEquals(data, Base32Codec.decode(encoded), "length=" + length);
+
+            byte[] exact = new byte[length];
+            assertEquals(length, Base32Codec.decode(encoded, exact, 0));
+            assertArrayEquals(data, exact);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(length);
+            assertEquals(length, Base32Codec.decode(encoded, direct));
+            assertEquals(length, direct.position());
+            byte[] fromDirect = new byte[length];
+            direct.flip();
+            direct.get(fromDirect);
+            assertArrayEquals(data, fromDirect);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.touscm.otpauth;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量计算与javax.crypto.Mac逐个计算的结果一致
+ * <p>
+ * Java 17及以上版本的构建另以多版本JAR中的类执行一次, 此时系统属性otpauth.test.vector为true, 要求启用Vector API实现
+ */
+class BatchHotpTest {
+    private static final long[] COUNTERS = {0, 1, 56666666, 0x7FFFFFFFL, 0xFFFFFFFFL, Long.MAX_VALUE};
+
+    @Test
+    void vectorEnabledWhenExpected() throws Exception {
+        if (!Boolean.getBoolean("otpauth.test.vector")) {
+            return;
+        }
+        Field field = BatchHotp.class.getDeclaredField("VECTOR_ENABLED");
+        field.setAccessible(true);
+        assertTrue(field.getBoolean(null), "Vector API implementation not enabled");
+    }
+
+    @Test
+    void sha1KeysMatchMac() throws Exception {
+        Random random = new Random(4226);
+        // 包含不足与超过一个分组(64字节)的密钥, 数量不是向量通道数的整数倍
+        for (int count : new int[]{1, 7, 16, 1003}) {
+            byte[][] keyData = randomKeys(random, count, HashAlgorithm.SHA1);
+            HmacKey[] keys = new HmacKey[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = HmacKey.of(HashAlgorithm.SHA1, keyData[i], true);
+            }
+            assertBatchMatches(keys, keyData);
+        }
+    }
+
+    @Test
+    void mixedAlgorithmsMatchMac() throws Exception {
+        Random random = new Random(6238);
+        HashAlgorithm[] algorithms = HashAlgorithm.values();
+        int count = 257;
+        byte[][] keyData = new byte[count][];
+        HmacKey[] keys = new HmacKey[count];
+        for (int i = 0; i < count; i++) {
+            HashAlgorithm algorithm = algorithms[random.nextInt(algorithms.length)];
+            keyData[i] = randomKeys(random, 1, algorithm)[0];
+            keys[i] = HmacKey.of(algorithm, keyData[i], true);
+        }
+        assertBatchMatches(keys, keyData);
+    }
+
+    private static void assertBatchMatches(HmacKey[] keys, byte[][] keyData) throws Exception {
+        for (long counter : COUNTERS) {
+            int[] expected = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                expected[i] = macTruncate(keys[i].getAlgorithm(), keyData[i], counter);
+            }
+
+            int[] binCodes = new int[keys.length];
+            BatchHotp.truncate(keys, counter, binCodes);
+            assertArrayEquals(expected, binCodes, "keys=" + keys.length + ", counter=" + counter);
+        }
+    }
+
+    private static byte[][] randomKeys(Random random, int count, HashAlgorithm algorithm) {
+        int[] lengths = {1, 10, algorithm.getSecretSize(), 64, 65, 100};
+        byte[][] keys = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            keys[i] = new byte[lengths[random.nextInt(lengths.length)]];
+            random.nextBytes(keys[i]);
+        }
+        return keys;
+    }
+
+    static int macTruncate(HashAlgorithm algorithm, byte[] keyData, long counter) throws Exception {
+        Mac mac = Mac.getInstance(algorithm.getMacName());
+        mac.init(new SecretKeySpec(keyData, algorithm.getMacName()));
+        byte[] hash = mac.doFinal(ByteBuffer.allocate(8).putLong(counter).array());
+        int offset = hash[hash.length - 1] & 0xF;
+        return (hash[offset] & 0x7f) << 24 | (hash[offset + 1] & 0xff) << 16 | (hash[offset + 2] & 0xff) << 8 | (hash[offset + 3] & 0xff);
+    }
+}
@@ -0,0 +1,86 @@
+package com.touscm.otpauth;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量创建密钥使用的AES-CTR密钥流
+ */
+class CtrKeystreamTest {
+    private static final int SEED_SIZE = 48;
+
+    @Test
+    void keystreamIsAesCtrUnderSeed() throws Exception {
+        byte[] output = new byte[1000];
+        new CtrKeystream(seeded(1)).nextBytes(output);
+
+        byte[] seed = new byte[SEED_SIZE];
+        seeded(1).nextBytes(seed);
+        Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(seed, 0, 32, "AES"), new IvParameterSpec(seed, 32, 16));
+        assertArrayEquals(cipher.doFinal(new byte[output.length]), output);
+    }
+
+    @Test
+    void splitRequestsContinueKeystream() throws Exception {
+        byte[] whole = new byte[CtrKeystream.MAX_BYTES_PER_KEY * 2 + 100];
+        new CtrKeystream(seeded(2)).nextBytes(whole);
+
+        CtrKeystream keystream = new CtrKeystream(seeded(2));
+        byte[] parts = new byte[whole.length];
+        for (int offset = 0; offset < parts.length; ) {
+            byte[] part = new byte[Math.min(parts.length - offset, 4099)];
+            keystream.nextBytes(part);
+            System.arraycopy(part, 0, parts, offset, part.length);
+            offset += part.length;
+        }
+        assertArrayEquals(whole, parts);
+    }
+
+    @Test
+    void rekeysFromSourceEveryLimit() throws Exception {
+        int[] draws = new int[1];
+        EntropySource source = seeded(3);
+        CtrKeystream keystream = new CtrKeystream(bytes -> {
+            assertEquals(SEED_SIZE, bytes.length);
+            draws[0]++;
+            source.nextBytes(bytes);
+        });
+        assertEquals(1, draws[0]);
+
+        keystream.nextBytes(new byte[CtrKeystream.MAX_BYTES_PER_KEY]);
+        assertEquals(1, draws[0]);
+        keystream.nextBytes(new byte[1]);
+        assertEquals(2, draws[0]);
+        keystream.nextBytes(new byte[CtrKeystream.MAX_BYTES_PER_KEY * 2]);
+        assertEquals(4, draws[0]);
+    }
+
+    @Test
+    void createSecretsAreDistinct() {
+        for (HashAlgorithm algorithm : HashAlgorithm.values()) {
+            String[] secrets = OtpAuthUtils.createSecrets(5000, algorithm);
+            Set<String> distinct = new HashSet<>(Arrays.asList(secrets));
+            assertEquals(secrets.length, distinct.size());
+            for (String secret : secrets) {
+                assertEquals(algorithm.getSecretSize(), Base32Codec.decode(secret).length);
+                assertTrue(secret.chars().allMatch(c -> 'A' <= c && c <= 'Z' || '2' <= c && c <= '7' || c == '='));
+            }
+        }
+    }
+
+    private static EntropySource seeded(long seed) {
+        return new Random(seed)::nextBytes;
+    }
+}
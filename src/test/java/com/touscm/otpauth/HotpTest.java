@@ -0,0 +1,70 @@
+package com.touscm.otpauth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于计数器的验证码(HOTP), 使用<a href="https://www.rfc-editor.org/rfc/rfc4226#appendix-D">RFC4226 Appendix D</a>的测试向量
+ */
+class HotpTest {
+    // "12345678901234567890"的Base32编码
+    private static final String SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+    private static final int[] CODES = {755224, 287082, 359152, 969429, 338314, 254676, 287922, 162583, 399871, 520489};
+
+    @Test
+    void generateMatchesVectors() {
+        OtpSecret secret = OtpSecret.fromBase32(SECRET);
+        for (int counter = 0; counter < CODES.length; counter++) {
+            assertEquals(CODES[counter], OtpAuthUtils.generateHotpCode(secret, counter).getValue(), "counter=" + counter);
+        }
+    }
+
+    @Test
+    void lookAheadReturnsNextCounter() {
+        assertResult(ValidateResult.Success, 1, OtpAuthUtils.validateHotp(SECRET, CODES[0], 0, 10));
+        assertResult(ValidateResult.Success, 5, OtpAuthUtils.validateHotp(SECRET, CODES[4], 1, 10));
+        assertResult(ValidateResult.Success, 10, OtpAuthUtils.validateHotp(OtpSecret.fromBase32(SECRET), CODES[9], 0));
+    }
+
+    @Test
+    void replayFromReturnedCounterFails() {
+        HotpValidateResult result = OtpAuthUtils.validateHotp(SECRET, CODES[4], 1);
+        assertTrue(result.isSuccess());
+        assertResult(ValidateResult.Failed, result.getCounter(), OtpAuthUtils.validateHotp(SECRET, CODES[4], result.getCounter()));
+    }
+
+    @Test
+    void beyondLookAheadFails() {
+        assertResult(ValidateResult.Failed, 0, OtpAuthUtils.validateHotp(SECRET, CODES[9], 0, 3));
+        assertResult(ValidateResult.Failed, 0, OtpAuthUtils.validateHotp(SECRET, 0, 0));
+        assertResult(ValidateResult.Failed, 0, OtpAuthUtils.validateHotp(SECRET, 1000000, 0));
+    }
+
+    @Test
+    void resyncWithAdjacentCodes() {
+        assertResult(ValidateResult.Success, 9, OtpAuthUtils.resyncHotp(SECRET, CODES[7], CODES[8], 0));
+        assertResult(ValidateResult.Success, 9, OtpAuthUtils.resyncHotp(OtpSecret.fromBase32(SECRET), CODES[7], CODES[8], 0, 100));
+    }
+
+    @Test
+    void resyncRejectsNonAdjacentCodes() {
+        assertResult(ValidateResult.Failed, 0, OtpAuthUtils.resyncHotp(SECRET, CODES[7], CODES[9], 0));
+        assertResult(ValidateResult.Failed, 0, OtpAuthUtils.resyncHotp(OtpSecret.fromBase32(SECRET), CODES[8], CODES[7], 0));
+        assertResult(ValidateResult.Failed, 8, OtpAuthUtils.resyncHotp(SECRET, CODES[7], CODES[8], 8));
+    }
+
+    @Test
+    void invalidWindowRejected() {
+        assertThrows(IllegalArgumentException.class, () -> OtpAuthUtils.validateHotp(SECRET, CODES[0], -1));
+        assertThrows(IllegalArgumentException.class, () -> OtpAuthUtils.validateHotp(SECRET, CODES[0], 0, OtpAuthUtils.MAX_HOTP_LOOK_AHEAD + 1));
+        assertResult(ValidateResult.Success, 1, OtpAuthUtils.validateHotp(SECRET, CODES[0], 0, 0));
+    }
+
+    private static void assertResult(ValidateResult expected, long counter, HotpValidateResult result) {
+        assertEquals(expected, result.getResult());
+        assertEquals(counter, result.getCounter());
+    }
+}
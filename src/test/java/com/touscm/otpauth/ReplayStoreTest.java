@@ -0,0 +1,105 @@
+package com.touscm.otpauth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 重复验证记录: 同一密钥相同或更早的时间窗口被拒绝, 记录按最大容许偏移过期, 不容许偏移的验证不会清理仍可能被接受的记录
+ */
+class ReplayStoreTest {
+    private static final long STEP = OtpAuthUtils.TIME_STEP_SIZE;
+    private static final long TIMESTAMP = 1700000000000L;
+
+    private final InMemoryReplayStore store = new InMemoryReplayStore(OtpAuthUtils.MAX_SIZE_CACHE_KEY);
+    private final OtpValidator driftValidator = OtpValidator.builder().drift(1, 1).replayStore(store).build();
+    private final OtpValidator plainValidator = OtpValidator.builder().replayStore(store).build();
+
+    @Test
+    void driftReplayIsDuplicate() {
+        String secret = OtpAuthUtils.createSecret();
+        long previousCode = code(secret, TIMESTAMP - STEP);
+
+        DriftValidateResult result = driftValidator.validateWithDrift(secret, previousCode, TIMESTAMP);
+        assertEquals(ValidateResult.Success, result.getResult());
+        assertEquals(-1, result.getOffset());
+        assertEquals(ValidateResult.Duplicate, driftValidator.validateWithDrift(secret, previousCode, TIMESTAMP).getResult());
+    }
+
+    @Test
+    void earlierWindowAfterLaterIsDuplicate() {
+        String secret = OtpAuthUtils.createSecret();
+
+        assertEquals(ValidateResult.Success, driftValidator.validate(secret, code(secret, TIMESTAMP), TIMESTAMP));
+        assertEquals(ValidateResult.Duplicate, driftValidator.validate(secret, code(secret, TIMESTAMP - STEP), TIMESTAMP));
+        assertEquals(ValidateResult.Success, driftValidator.validate(secret, code(secret, TIMESTAMP + STEP), TIMESTAMP));
+    }
+
+    @Test
+    void driftReplayAfterPlainEviction() {
+        String secret = OtpAuthUtils.createSecret();
+        long previousCode = code(secret, TIMESTAMP - STEP);
+
+        assertEquals(ValidateResult.Success, driftValidator.validateWithDrift(secret, previousCode, TIMESTAMP).getResult());
+        assertEquals(ValidateResult.Duplicate, driftValidator.validateWithDrift(secret, previousCode, TIMESTAMP).getResult());
+
+        // 不容许偏移的验证使记录数量超过阈值并触发清理
+        validateOthers(510, TIMESTAMP);
+        assertTrue(OtpAuthUtils.MAX_SIZE_CACHE_KEY < store.size());
+
+        assertEquals(ValidateResult.Duplicate, driftValidator.validateWithDrift(secret, previousCode, TIMESTAMP).getResult());
+    }
+
+    @Test
+    void recordsExpireAfterMaxDriftWindows() {
+        InMemoryReplayStore small = new InMemoryReplayStore(2);
+        long window = TIMESTAMP / STEP;
+        long expireAt = (window + OtpAuthUtils.MAX_DRIFT_WINDOWS + 1) * STEP;
+
+        assertTrue(small.tryAccept("a", window, expireAt, window * STEP));
+        assertTrue(small.tryAccept("b", window, expireAt, window * STEP));
+        assertFalse(small.tryAccept("a", window, expireAt, window * STEP));
+
+        // 过期前达到阈值也不清理
+        assertTrue(small.tryAccept("c", window + 1, expireAt + STEP, expireAt - 1));
+        assertEquals(3, small.size());
+        assertFalse(small.tryAccept("a", window, expireAt, expireAt - 1));
+
+        // 过期后清理
+        assertTrue(small.tryAccept("d", window + 12, expireAt + 12 * STEP, expireAt));
+        assertEquals(2, small.size());
+    }
+
+    @Test
+    void validatorRecordsExpire() {
+        String secret = OtpAuthUtils.createSecret();
+        assertEquals(ValidateResult.Success, plainValidator.validate(secret, code(secret, TIMESTAMP), TIMESTAMP));
+
+        long later = TIMESTAMP + (OtpAuthUtils.MAX_DRIFT_WINDOWS + 1) * STEP;
+        validateOthers(OtpAuthUtils.MAX_SIZE_CACHE_KEY, later);
+        assertEquals(OtpAuthUtils.MAX_SIZE_CACHE_KEY, store.size());
+    }
+
+    @Test
+    void longerPeriodSurvivesShorterPeriodEviction() {
+        OtpSecret secret = OtpSecret.fromBase32(OtpAuthUtils.createSecret(), HashAlgorithm.SHA1, OtpCode.DEFAULT_DIGITS, 60);
+        long code = OtpAuthUtils.generateCode(secret, TIMESTAMP).getValue();
+
+        assertEquals(ValidateResult.Success, plainValidator.validate(secret, code, TIMESTAMP));
+        validateOthers(600, TIMESTAMP);
+        assertEquals(ValidateResult.Duplicate, plainValidator.validate(secret, code, TIMESTAMP));
+    }
+
+    private void validateOthers(int count, long timestamp) {
+        for (int i = 0; i < count; i++) {
+            String other = OtpAuthUtils.createSecret();
+            assertEquals(ValidateResult.Success, plainValidator.validate(other, code(other, timestamp), timestamp));
+        }
+    }
+
+    private static long code(String secret, long timestamp) {
+        return OtpAuthUtils.generateCode(secret, HashAlgorithm.SHA1, OtpCode.DEFAULT_DIGITS, timestamp).getValue();
+    }
+}
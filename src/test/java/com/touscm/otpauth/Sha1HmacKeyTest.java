@@ -0,0 +1,74 @@
+package com.touscm.otpauth;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 纯Java的HmacSHA1实现与RFC测试向量及javax.crypto.Mac的结果一致
+ */
+class Sha1HmacKeyTest {
+    private static final byte[] SEED_SHA1 = "12345678901234567890".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SEED_SHA256 = "12345678901234567890123456789012".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SEED_SHA512 = "1234567890123456789012345678901234567890123456789012345678901234".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * <a href="https://www.rfc-editor.org/rfc/rfc4226#appendix-D">RFC4226 Appendix D</a>, 计数器0至9
+     */
+    private static final int[] RFC4226_TRUNCATED = {
+            0x4c93cf18, 0x41397eea, 0x082fef30, 0x66ef7655, 0x61c5938a,
+            0x33c083d4, 0x7256c032, 0x04e5b397, 0x2823443f, 0x2679dc69};
+    private static final int[] RFC4226_CODES = {755224, 287082, 359152, 969429, 338314, 254676, 287922, 162583, 399871, 520489};
+
+    /**
+     * <a href="https://www.rfc-editor.org/rfc/rfc6238#appendix-B">RFC6238 Appendix B</a>, 8位验证码, 时间步长30秒
+     */
+    private static final long[] RFC6238_TIMES = {59L, 1111111109L, 1111111111L, 1234567890L, 2000000000L, 20000000000L};
+    private static final int[] RFC6238_SHA1 = {94287082, 7081804, 14050471, 89005924, 69279037, 65353130};
+    private static final int[] RFC6238_SHA256 = {46119246, 68084774, 67062674, 91819424, 90698825, 77737706};
+    private static final int[] RFC6238_SHA512 = {90693936, 25091201, 99943326, 93441116, 38618901, 47863826};
+
+    @Test
+    void rfc4226Vectors() throws Exception {
+        HmacKey key = HmacKey.of(HashAlgorithm.SHA1, SEED_SHA1, true);
+        assertTrue(key instanceof Sha1HmacKey);
+        for (int counter = 0; counter < RFC4226_CODES.length; counter++) {
+            assertEquals(RFC4226_TRUNCATED[counter], key.truncate(counter), "counter=" + counter);
+            assertEquals(RFC4226_CODES[counter], OtpCode.truncate(key.truncate(counter), 6), "counter=" + counter);
+        }
+    }
+
+    @Test
+    void rfc6238Vectors() throws Exception {
+        for (boolean pureJava : new boolean[]{true, false}) {
+            assertTotp(HmacKey.of(HashAlgorithm.SHA1, SEED_SHA1, pureJava), RFC6238_SHA1);
+            assertTotp(HmacKey.of(HashAlgorithm.SHA256, SEED_SHA256, pureJava), RFC6238_SHA256);
+            assertTotp(HmacKey.of(HashAlgorithm.SHA512, SEED_SHA512, pureJava), RFC6238_SHA512);
+        }
+    }
+
+    @Test
+    void randomKeysMatchMac() throws Exception {
+        Random random = new Random(2000);
+        for (int i = 0; i < 2000; i++) {
+            // 包含短于、等于与长于一个分组(64字节)的密钥
+            byte[] keyData = new byte[1 + random.nextInt(128)];
+            random.nextBytes(keyData);
+            long counter = i % 4 == 0 ? random.nextInt(100) : random.nextLong() >>> 1;
+
+            HmacKey key = HmacKey.of(HashAlgorithm.SHA1, keyData, true);
+            assertEquals(BatchHotpTest.macTruncate(HashAlgorithm.SHA1, keyData, counter), key.truncate(counter), "key length=" + keyData.length + ", counter=" + counter);
+        }
+    }
+
+    private static void assertTotp(HmacKey key, int[] codes) {
+        for (int i = 0; i < RFC6238_TIMES.length; i++) {
+            long timeWindow = RFC6238_TIMES[i] * 1000 / OtpAuthUtils.TIME_STEP_SIZE;
+            assertEquals(codes[i], OtpCode.truncate(key.truncate(timeWindow), 8), key.getAlgorithm() + " time=" + RFC6238_TIMES[i]);
+        }
+    }
+}